@@ -0,0 +1,179 @@
+package ro.nom.vmt.spreadsheet_importer.benchmark;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import ro.nom.vmt.spreadsheet_importer.annotation.Import;
+import ro.nom.vmt.spreadsheet_importer.annotation.Importable;
+import ro.nom.vmt.spreadsheet_importer.annotation.Inject;
+import ro.nom.vmt.spreadsheet_importer.annotation.Named;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static ro.nom.vmt.spreadsheet_importer.annotation.Inject.InjectType.ROW_NUMBER;
+
+//One column for every type handled by ColumnUtil, the columns are written by SyntheticWorkbook
+@Importable(isNamed = true, sheetNames = {"Orders.*"})
+public class BenchmarkRow {
+
+    @Inject(ROW_NUMBER)
+    private Integer rowNumber;
+    @Named("Name")
+    @Import
+    private String name;
+    @Named("Code")
+    @Import(required = true, matches = "[A-Z]{3}-[0-9]{4}")
+    private String code;
+    @Named("Level")
+    @Import
+    private Byte level;
+    @Named("Units")
+    @Import
+    private Short units;
+    @Named("Quantity")
+    @Import
+    private Integer quantity;
+    @Named("Reference")
+    @Import
+    private Long reference;
+    @Named("Price")
+    @Import
+    private Float price;
+    @Named("Amount")
+    @Import
+    private Double amount;
+    @Named("Active")
+    @Import
+    private Boolean active;
+    @Named("Ordered on")
+    @Import
+    private LocalDate orderedOn;
+    @Named("Ordered at")
+    @Import
+    private LocalTime orderedAt;
+    @Named("Shipped at")
+    @Import
+    private LocalDateTime shippedAt;
+    @Named(value = "Extra.*", minimumMatches = 0, maximumMatches = Integer.MAX_VALUE)
+    @Import
+    private List<String> extras;
+
+    public Integer getRowNumber() {
+        return rowNumber;
+    }
+
+    public void setRowNumber(Integer rowNumber) {
+        this.rowNumber = rowNumber;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public Byte getLevel() {
+        return level;
+    }
+
+    public void setLevel(Byte level) {
+        this.level = level;
+    }
+
+    public Short getUnits() {
+        return units;
+    }
+
+    public void setUnits(Short units) {
+        this.units = units;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Long getReference() {
+        return reference;
+    }
+
+    public void setReference(Long reference) {
+        this.reference = reference;
+    }
+
+    public Float getPrice() {
+        return price;
+    }
+
+    public void setPrice(Float price) {
+        this.price = price;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public LocalDate getOrderedOn() {
+        return orderedOn;
+    }
+
+    public void setOrderedOn(LocalDate orderedOn) {
+        this.orderedOn = orderedOn;
+    }
+
+    public LocalTime getOrderedAt() {
+        return orderedAt;
+    }
+
+    public void setOrderedAt(LocalTime orderedAt) {
+        this.orderedAt = orderedAt;
+    }
+
+    public LocalDateTime getShippedAt() {
+        return shippedAt;
+    }
+
+    public void setShippedAt(LocalDateTime shippedAt) {
+        this.shippedAt = shippedAt;
+    }
+
+    public List<String> getExtras() {
+        return extras;
+    }
+
+    public void setExtras(List<String> extras) {
+        this.extras = extras;
+    }
+}
@@ -0,0 +1,102 @@
+package ro.nom.vmt.spreadsheet_importer.benchmark;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.openjdk.jmh.annotations.*;
+import ro.nom.vmt.spreadsheet_importer.importing.ImportData;
+import ro.nom.vmt.spreadsheet_importer.importing.Importer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+//The whole import of a file, from the bytes of the file to the ImportData
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportBenchmark {
+
+    @Param({"1000", "10000"})
+    private int rows;
+    @Param({"0", "0.2"})
+    private double formulaDensity;
+    @Param({"0", "0.05"})
+    private double errorRate;
+    @Param({"false", "true"})
+    private boolean textValues;
+
+    private byte[] xlsx;
+    private byte[] xls;
+
+    private Importer<BenchmarkRow> importer;
+    private Importer<BenchmarkRow> streamingImporter;
+    private Importer<BenchmarkRow> cachedFormulaImporter;
+
+    @Setup
+    public void setup() {
+        SyntheticWorkbook syntheticWorkbook = new SyntheticWorkbook()
+                .withRows(rows)
+                .withFormulaDensity(formulaDensity)
+                .withErrorRate(errorRate)
+                .withTextValues(textValues);
+        xlsx = syntheticWorkbook.toXlsx();
+        xls = syntheticWorkbook.toXls();
+
+        importer = Importer.build(BenchmarkRowImportMapper.class);
+        streamingImporter = Importer.builder(BenchmarkRowImportMapper.class)
+                .withStreaming()
+                .build();
+        cachedFormulaImporter = Importer.builder(BenchmarkRowImportMapper.class)
+                .withCachedFormulaResults()
+                .build();
+    }
+
+    @Benchmark
+    public int loadXlsx() throws IOException {
+        try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(xlsx))) {
+            return workbook.getSheetAt(0).getLastRowNum();
+        }
+    }
+
+    @Benchmark
+    public int loadXls() throws IOException {
+        try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(xls))) {
+            return workbook.getSheetAt(0).getLastRowNum();
+        }
+    }
+
+    @Benchmark
+    public ImportData<BenchmarkRow> importXlsx() {
+        return importer.process(new ByteArrayInputStream(xlsx));
+    }
+
+    @Benchmark
+    public ImportData<BenchmarkRow> importXls() {
+        return importer.process(new ByteArrayInputStream(xls));
+    }
+
+    @Benchmark
+    public ImportData<BenchmarkRow> importXlsxCachedFormulas() {
+        return cachedFormulaImporter.process(new ByteArrayInputStream(xlsx));
+    }
+
+    @Benchmark
+    public ImportData<BenchmarkRow> importXlsxStreaming() {
+        return streamingImporter.process(new ByteArrayInputStream(xlsx));
+    }
+
+    @Benchmark
+    public ImportData<BenchmarkRow> importXlsStreaming() {
+        return streamingImporter.process(new ByteArrayInputStream(xls));
+    }
+}
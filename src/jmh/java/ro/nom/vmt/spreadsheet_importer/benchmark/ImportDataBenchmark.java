@@ -0,0 +1,107 @@
+package ro.nom.vmt.spreadsheet_importer.benchmark;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.openjdk.jmh.annotations.*;
+import ro.nom.vmt.spreadsheet_importer.importing.ImportData;
+import ro.nom.vmt.spreadsheet_importer.importing.Importer;
+import ro.nom.vmt.spreadsheet_importer.interfaces.Problem;
+import ro.nom.vmt.spreadsheet_importer.problems.RowProblem;
+import ro.nom.vmt.spreadsheet_importer.problems.ValueFormatProblem;
+import ro.nom.vmt.spreadsheet_importer.problems.ValueFormatRegexProblem;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//The queries made on the result of an import once it is done
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImportDataBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+    @Param({"0.05", "0.5"})
+    private double errorRate;
+
+    private ImportData<BenchmarkRow> importData;
+    private List<BenchmarkRow> allRows;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        byte[] xlsx = new SyntheticWorkbook()
+                .withRows(rows)
+                .withErrorRate(errorRate)
+                .toXlsx();
+        importData = Importer.build(BenchmarkRowImportMapper.class).process(new ByteArrayInputStream(xlsx));
+        allRows = importData.getAllRows();
+    }
+
+    private BenchmarkRow nextRow() {
+        BenchmarkRow row = allRows.get(next);
+        next = (next + 1) % allRows.size();
+        return row;
+    }
+
+    @Benchmark
+    public List<BenchmarkRow> getValidRows() {
+        return importData.getValidRows();
+    }
+
+    @Benchmark
+    public List<BenchmarkRow> getInvalidRows() {
+        return importData.getInvalidRows();
+    }
+
+    @Benchmark
+    public List<BenchmarkRow> getInvalidRowsByClass() {
+        return importData.getInvalidRows(ValueFormatRegexProblem.class);
+    }
+
+    @Benchmark
+    public List<Problem> getValidationProblems() {
+        return importData.getValidationProblems();
+    }
+
+    @Benchmark
+    public List<Problem> getValidationProblemsByClass() {
+        return importData.getValidationProblems(ValueFormatProblem.class);
+    }
+
+    @Benchmark
+    public List<Problem> getValidationProblemsTree() {
+        return importData.getValidationProblemsTree(RowProblem.class);
+    }
+
+    @Benchmark
+    public List<RowProblem> getValidationProblemsOfRow() {
+        return importData.getValidationProblems(nextRow());
+    }
+
+    @Benchmark
+    public List<RowProblem> getValidationProblemsByPosition() {
+        BenchmarkRow row = nextRow();
+        return importData.getValidationProblems(SyntheticWorkbook.SHEET_NAME, row.getRowNumber());
+    }
+
+    @Benchmark
+    public Map<Class<? extends Problem>, Long> getProblemCounts() {
+        return importData.getProblemCounts();
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return importData.isValid();
+    }
+}
@@ -0,0 +1,172 @@
+package ro.nom.vmt.spreadsheet_importer.benchmark;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+//Generates workbooks with the columns of BenchmarkRow, the same settings and seed always give the same file
+public class SyntheticWorkbook {
+
+    public static final String SHEET_NAME = "Orders";
+    public static final String[] COLUMNS = {"Name", "Code", "Level", "Units", "Quantity", "Reference", "Price", "Amount",
+            "Active", "Ordered on", "Ordered at", "Shipped at"};
+    private static final int QUANTITY_COLUMN = 4;
+    private static final int PRICE_COLUMN = 6;
+    private static final int AMOUNT_COLUMN = 7;
+    private static final LocalDateTime START = LocalDateTime.of(2021, 1, 1, 8, 0);
+
+    private int rows = 1000;
+    private int extraColumns = 0;
+    private boolean textValues = false;
+    private double formulaDensity = 0;
+    private double errorRate = 0;
+    private long seed = 42;
+
+    public SyntheticWorkbook withRows(int rows) {
+        this.rows = rows;
+        return this;
+    }
+
+    //extra text columns matched by the "Extra.*" list of BenchmarkRow, they make the header wider
+    public SyntheticWorkbook withExtraColumns(int extraColumns) {
+        this.extraColumns = extraColumns;
+        return this;
+    }
+
+    //numbers, booleans and dates written as text cells so they have to be parsed
+    public SyntheticWorkbook withTextValues(boolean textValues) {
+        this.textValues = textValues;
+        return this;
+    }
+
+    //the share of the Amount cells written as a formula instead of a value
+    public SyntheticWorkbook withFormulaDensity(double formulaDensity) {
+        this.formulaDensity = formulaDensity;
+        return this;
+    }
+
+    //the share of the rows having a code that does not match and a quantity that is not a number
+    public SyntheticWorkbook withErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public SyntheticWorkbook withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public byte[] toXlsx() {
+        return write(new XSSFWorkbook());
+    }
+
+    public byte[] toXls() {
+        return write(new HSSFWorkbook());
+    }
+
+    public Workbook toWorkbook(boolean xlsx) {
+        Workbook workbook = xlsx ? new XSSFWorkbook() : new HSSFWorkbook();
+        fill(workbook);
+        return workbook;
+    }
+
+    private byte[] write(Workbook workbook) {
+        try (Workbook toWrite = workbook; ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            fill(toWrite);
+            toWrite.write(outputStream);
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void fill(Workbook workbook) {
+        Random random = new Random(seed);
+        Sheet sheet = workbook.createSheet(SHEET_NAME);
+        CreationHelper creationHelper = workbook.getCreationHelper();
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(creationHelper.createDataFormat().getFormat("yyyy-mm-dd"));
+        CellStyle timeStyle = workbook.createCellStyle();
+        timeStyle.setDataFormat(creationHelper.createDataFormat().getFormat("hh:mm"));
+        CellStyle dateTimeStyle = workbook.createCellStyle();
+        dateTimeStyle.setDataFormat(creationHelper.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            header.createCell(i).setCellValue(COLUMNS[i]);
+        }
+        for (int i = 0; i < extraColumns; i++) {
+            header.createCell(COLUMNS.length + i).setCellValue("Extra " + (i + 1));
+        }
+
+        for (int r = 1; r <= rows; r++) {
+            Row row = sheet.createRow(r);
+            boolean invalid = random.nextDouble() < errorRate;
+            LocalDateTime orderedAt = START.plusMinutes(random.nextInt(60 * 24 * 365));
+            int quantity = 1 + random.nextInt(500);
+            double price = Math.round(random.nextDouble() * 10000) / 100.0;
+
+            row.createCell(0).setCellValue("Customer " + random.nextInt(10000));
+            row.createCell(1).setCellValue(invalid ? "invalid code" : String.format("ABC-%04d", random.nextInt(10000)));
+            setNumber(row, 2, random.nextInt(100));
+            setNumber(row, 3, random.nextInt(30000));
+            if (invalid) {
+                row.createCell(QUANTITY_COLUMN).setCellValue("n/a");
+            } else {
+                setNumber(row, QUANTITY_COLUMN, quantity);
+            }
+            setNumber(row, 5, Math.abs(random.nextLong() % 10_000_000_000L));
+            setNumber(row, PRICE_COLUMN, price);
+            if (random.nextDouble() < formulaDensity) {
+                String quantityCell = new CellReference(r, QUANTITY_COLUMN).formatAsString();
+                String priceCell = new CellReference(r, PRICE_COLUMN).formatAsString();
+                row.createCell(AMOUNT_COLUMN).setCellFormula(invalid ? priceCell : quantityCell + "*" + priceCell);
+            } else {
+                setNumber(row, AMOUNT_COLUMN, quantity * price);
+            }
+            if (textValues) {
+                row.createCell(8).setCellValue(random.nextBoolean() ? "YES" : "NO");
+                row.createCell(9).setCellValue(orderedAt.toLocalDate().toString());
+                row.createCell(10).setCellValue(orderedAt.toLocalTime().toString());
+                row.createCell(11).setCellValue(orderedAt.plusDays(2).toString());
+            } else {
+                row.createCell(8).setCellValue(random.nextBoolean());
+                setDate(row, 9, orderedAt.toLocalDate().atStartOfDay(), dateStyle);
+                setDate(row, 10, LocalDate.of(1900, 1, 1).atTime(orderedAt.toLocalTime()), timeStyle);
+                setDate(row, 11, orderedAt.plusDays(2), dateTimeStyle);
+            }
+            for (int i = 0; i < extraColumns; i++) {
+                row.createCell(COLUMNS.length + i).setCellValue("Extra value " + random.nextInt(1000));
+            }
+        }
+    }
+
+    private void setNumber(Row row, int column, double value) {
+        if (textValues) {
+            row.createCell(column).setCellValue(value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value));
+        } else {
+            row.createCell(column).setCellValue(value);
+        }
+    }
+
+    private void setDate(Row row, int column, LocalDateTime value, CellStyle style) {
+        Cell cell = row.createCell(column);
+        cell.setCellValue(value);
+        cell.setCellStyle(style);
+    }
+}
@@ -0,0 +1,157 @@
+package ro.nom.vmt.spreadsheet_importer.importing;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.openjdk.jmh.annotations.*;
+import ro.nom.vmt.spreadsheet_importer.benchmark.BenchmarkRow;
+import ro.nom.vmt.spreadsheet_importer.benchmark.BenchmarkRowImportMapper;
+import ro.nom.vmt.spreadsheet_importer.benchmark.SyntheticWorkbook;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+import ro.nom.vmt.spreadsheet_importer.reading.WorkbookReader;
+import ro.nom.vmt.spreadsheet_importer.util.ColumnOptions;
+import ro.nom.vmt.spreadsheet_importer.util.ColumnUtil;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Every getter of ColumnUtil on the column of the synthetic workbook holding its type
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnUtilBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final String CODE_REGEX = "[A-Z]{3}-[0-9]{4}";
+    private static final int NAME_COLUMN = column("Name");
+    private static final int CODE_COLUMN = column("Code");
+    private static final int LEVEL_COLUMN = column("Level");
+    private static final int UNITS_COLUMN = column("Units");
+    private static final int QUANTITY_COLUMN = column("Quantity");
+    private static final int REFERENCE_COLUMN = column("Reference");
+    private static final int PRICE_COLUMN = column("Price");
+    private static final int AMOUNT_COLUMN = column("Amount");
+    private static final int ACTIVE_COLUMN = column("Active");
+    private static final int ORDERED_ON_COLUMN = column("Ordered on");
+    private static final int ORDERED_AT_COLUMN = column("Ordered at");
+    private static final int SHIPPED_AT_COLUMN = column("Shipped at");
+
+    @Param({"false", "true"})
+    private boolean textValues;
+
+    private BenchmarkRowImportMapper mapper;
+    private Importer.Options<BenchmarkRow> options;
+    private List<SpreadsheetRow> rows;
+    private ImportData<BenchmarkRow> importData;
+    private int next = 0;
+
+    private final ColumnOptions columnOptions = ColumnOptions.builder().columnName("Benchmark").build();
+    private final ColumnOptions codeColumnOptions = ColumnOptions.builder().matches(CODE_REGEX).columnName("Code").build();
+
+    @Setup
+    public void setup() {
+        Importer<BenchmarkRow> importer = Importer.build(BenchmarkRowImportMapper.class);
+        mapper = new BenchmarkRowImportMapper();
+        options = importer.getOptions();
+        WorkbookReader reader = new WorkbookReader(new SyntheticWorkbook()
+                .withRows(ROWS)
+                .withTextValues(textValues)
+                .toWorkbook(true));
+        Iterator<SpreadsheetRow> iterator = reader.rowIterator(0);
+        iterator.next();
+        rows = new ArrayList<>();
+        iterator.forEachRemaining(rows::add);
+    }
+
+    @Setup(Level.Iteration)
+    public void newImportData() {
+        importData = new ImportData<>(mapper, false);
+    }
+
+    private static int column(String name) {
+        return Arrays.asList(SyntheticWorkbook.COLUMNS).indexOf(name);
+    }
+
+    private RowContext<BenchmarkRow> newRowContext() {
+        return importData.newRowContext(importData, options);
+    }
+
+    private SpreadsheetRow nextRow() {
+        SpreadsheetRow row = rows.get(next);
+        next = (next + 1) % rows.size();
+        return row;
+    }
+
+    @Benchmark
+    public String getString() {
+        return ColumnUtil.getString(newRowContext(), nextRow(), NAME_COLUMN, columnOptions);
+    }
+
+    @Benchmark
+    public String getStringMatching() {
+        return ColumnUtil.getString(newRowContext(), nextRow(), CODE_COLUMN, codeColumnOptions);
+    }
+
+    @Benchmark
+    public Byte getByte() {
+        return ColumnUtil.getByte(newRowContext(), nextRow(), LEVEL_COLUMN, columnOptions);
+    }
+
+    @Benchmark
+    public Short getShort() {
+        return ColumnUtil.getShort(newRowContext(), nextRow(), UNITS_COLUMN, columnOptions);
+    }
+
+    @Benchmark
+    public Integer getInteger() {
+        return ColumnUtil.getInteger(newRowContext(), nextRow(), QUANTITY_COLUMN, columnOptions);
+    }
+
+    @Benchmark
+    public Long getLong() {
+        return ColumnUtil.getLong(newRowContext(), nextRow(), REFERENCE_COLUMN, columnOptions);
+    }
+
+    @Benchmark
+    public Float getFloat() {
+        return ColumnUtil.getFloat(newRowContext(), nextRow(), PRICE_COLUMN, columnOptions);
+    }
+
+    @Benchmark
+    public Double getDouble() {
+        return ColumnUtil.getDouble(newRowContext(), nextRow(), AMOUNT_COLUMN, columnOptions);
+    }
+
+    @Benchmark
+    public Boolean getBoolean() {
+        return ColumnUtil.getBoolean(newRowContext(), nextRow(), ACTIVE_COLUMN, columnOptions);
+    }
+
+    @Benchmark
+    public LocalDate getLocalDate() {
+        return ColumnUtil.getLocalDate(newRowContext(), nextRow(), ORDERED_ON_COLUMN, columnOptions);
+    }
+
+    @Benchmark
+    public LocalTime getLocalTime() {
+        return ColumnUtil.getLocalTime(newRowContext(), nextRow(), ORDERED_AT_COLUMN, columnOptions);
+    }
+
+    @Benchmark
+    public LocalDateTime getLocalDateTime() {
+        return ColumnUtil.getLocalDateTime(newRowContext(), nextRow(), SHIPPED_AT_COLUMN, columnOptions);
+    }
+}
@@ -0,0 +1,66 @@
+package ro.nom.vmt.spreadsheet_importer.importing;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.openjdk.jmh.annotations.*;
+import ro.nom.vmt.spreadsheet_importer.benchmark.BenchmarkRow;
+import ro.nom.vmt.spreadsheet_importer.benchmark.BenchmarkRowImportMapper;
+import ro.nom.vmt.spreadsheet_importer.benchmark.SyntheticWorkbook;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+import ro.nom.vmt.spreadsheet_importer.reading.WorkbookReader;
+import ro.nom.vmt.spreadsheet_importer.util.ColumnPlan;
+import ro.nom.vmt.spreadsheet_importer.util.HeaderMatcher;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Matching the header of a sheet against the column names of the mapper, done once for every sheet
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeaderBenchmark {
+
+    @Param({"0", "50", "500"})
+    private int extraColumns;
+
+    private Importer<BenchmarkRow> importer;
+    private BenchmarkRowImportMapper mapper;
+    private SpreadsheetRow headerRow;
+    private Map<String, LinkedHashMap<String, Integer>> columnPositions;
+
+    @Setup
+    public void setup() {
+        importer = Importer.build(BenchmarkRowImportMapper.class);
+        mapper = new BenchmarkRowImportMapper();
+        WorkbookReader reader = new WorkbookReader(new SyntheticWorkbook()
+                .withRows(1)
+                .withExtraColumns(extraColumns)
+                .toWorkbook(true));
+        headerRow = reader.rowIterator(0).next();
+        columnPositions = importer.getNamedColumnPositions(headerRow);
+    }
+
+    @Benchmark
+    public Map<String, LinkedHashMap<String, Integer>> namedColumnPositions() {
+        return importer.getNamedColumnPositions(headerRow);
+    }
+
+    @Benchmark
+    public HeaderMatcher headerMatcher() {
+        return new HeaderMatcher(mapper.getColumnNames());
+    }
+
+    @Benchmark
+    public ColumnPlan columnPlan() {
+        return mapper.getColumnPlan(columnPositions);
+    }
+}
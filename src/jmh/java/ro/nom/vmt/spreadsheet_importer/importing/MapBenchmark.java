@@ -0,0 +1,86 @@
+package ro.nom.vmt.spreadsheet_importer.importing;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.openjdk.jmh.annotations.*;
+import ro.nom.vmt.spreadsheet_importer.benchmark.BenchmarkRow;
+import ro.nom.vmt.spreadsheet_importer.benchmark.BenchmarkRowImportMapper;
+import ro.nom.vmt.spreadsheet_importer.benchmark.SyntheticWorkbook;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+import ro.nom.vmt.spreadsheet_importer.reading.WorkbookReader;
+import ro.nom.vmt.spreadsheet_importer.util.ColumnPlan;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//The generated map method alone and together with the validation and submitting done by the row context
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"false", "true"})
+    private boolean textValues;
+    @Param({"0", "0.2"})
+    private double formulaDensity;
+    @Param({"0", "0.05"})
+    private double errorRate;
+
+    private BenchmarkRowImportMapper mapper;
+    private Importer.Options<BenchmarkRow> options;
+    private ColumnPlan columnPlan;
+    private List<SpreadsheetRow> rows;
+    private ImportData<BenchmarkRow> importData;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        Importer<BenchmarkRow> importer = Importer.build(BenchmarkRowImportMapper.class);
+        mapper = new BenchmarkRowImportMapper();
+        options = importer.getOptions();
+        WorkbookReader reader = new WorkbookReader(new SyntheticWorkbook()
+                .withRows(ROWS)
+                .withTextValues(textValues)
+                .withFormulaDensity(formulaDensity)
+                .withErrorRate(errorRate)
+                .toWorkbook(true));
+        Iterator<SpreadsheetRow> iterator = reader.rowIterator(0);
+        columnPlan = mapper.getColumnPlan(importer.getNamedColumnPositions(iterator.next()));
+        rows = new ArrayList<>();
+        iterator.forEachRemaining(rows::add);
+    }
+
+    //a new import data every iteration so the rows kept by it do not pile up
+    @Setup(Level.Iteration)
+    public void newImportData() {
+        importData = new ImportData<>(mapper, false);
+    }
+
+    private SpreadsheetRow nextRow() {
+        SpreadsheetRow row = rows.get(next);
+        next = (next + 1) % rows.size();
+        return row;
+    }
+
+    @Benchmark
+    public BenchmarkRow generatedMap() {
+        return mapper.map(importData.newRowContext(importData, options), nextRow(), columnPlan);
+    }
+
+    @Benchmark
+    public BenchmarkRow rowContextMap() {
+        return importData.newRowContext(importData, options).map(nextRow(), columnPlan);
+    }
+}
@@ -10,18 +10,21 @@ package ro.nom.vmt.spreadsheet_importer;
 import com.squareup.javapoet.*;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Type;
-import org.apache.poi.ss.usermodel.Row;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ro.nom.vmt.spreadsheet_importer.annotation.*;
+import ro.nom.vmt.spreadsheet_importer.importing.ImportMetrics;
 import ro.nom.vmt.spreadsheet_importer.importing.RowContext;
 import ro.nom.vmt.spreadsheet_importer.interfaces.BaseImportMapper;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
 import ro.nom.vmt.spreadsheet_importer.interfaces.Validatable;
 import ro.nom.vmt.spreadsheet_importer.problems.InstantiationProblem;
 import ro.nom.vmt.spreadsheet_importer.problems.ValueFormatEnumProblem;
 import ro.nom.vmt.spreadsheet_importer.problems.ValueFormatProblem;
 import ro.nom.vmt.spreadsheet_importer.util.ColumnOptions;
+import ro.nom.vmt.spreadsheet_importer.util.ColumnPlan;
 import ro.nom.vmt.spreadsheet_importer.util.ColumnUtil;
+import ro.nom.vmt.spreadsheet_importer.util.HeaderMatcher;
 import ro.nom.vmt.spreadsheet_importer.util.Pair;
 
 import javax.annotation.processing.Filer;
@@ -48,7 +51,12 @@ import static com.squareup.javapoet.ParameterizedTypeName.get;
 public class ImportableClass {
 
     private static final String OPTIONS_SUFFIX = "Options";
-    private static final String ENTRY_SUFFIX = "Entry";
+    private static final String COLUMN_OPTIONS_SUFFIX = "ColumnOptions";
+    private static final String PLANNED_FIELDS = "plannedFields";
+    private static final String PLANNED_COLUMN_OPTIONS = "plannedColumnOptions";
+    private static final String COLUMNS_SUFFIX = "Columns";
+    private static final String COLUMN_NAMES_SUFFIX = "ColumnNames";
+    private static final String INDEX_SUFFIX = "Index";
     private static final String PROCESSORS_SUFFIX = "Processors";
     private static final String STRING_SUFFIX = "String";
 
@@ -65,6 +73,9 @@ public class ImportableClass {
     private final Set<VariableElement> variableElements = new HashSet<>();
     private final Set<VariableElement> injectedElements = new HashSet<>();
     private final Map<String, List<? extends TypeMirror>> processFunctionClassesByVariable = new HashMap<>();
+    private final Map<String, CodeBlock> columnOptionsByVariable = new LinkedHashMap<>();
+    //the key of each planned field in the column positions, in the order of their indexes in the column plan
+    private final List<String> plannedFields = new ArrayList<>();
     boolean hasHeader;
     boolean isNamed;
     int[] sheetIndexes;
@@ -138,15 +149,20 @@ public class ImportableClass {
                     .addField(get(Set.class, Integer.class), "sheetPositions")
                     .addField(get(ClassName.get(Map.class), ClassName.get(String.class), get(Pair.class, Integer.class, Integer.class)), "columnRequiredAppearances");
 
+            typeSpecBuilder = addProcessorFields(typeSpecBuilder);
+            typeSpecBuilder = addColumnOptionsFields(typeSpecBuilder);
+            if (isNamed) {
+                typeSpecBuilder.addField(HeaderMatcher.class, "headerMatcher", Modifier.PRIVATE, Modifier.FINAL);
+            }
+
             typeSpecBuilder.addStaticBlock(CodeBlock.builder()
                     .addStatement("log = $T.getLogger($T.class)", LoggerFactory.class, classElement)
+                    .add(getProcessorInitializerBlock())
+                    .add(getColumnOptionsInitializerBlock())
                     .build());
 
-            typeSpecBuilder = addProcessorFields(typeSpecBuilder);
-
             typeSpecBuilder
                     .addInitializerBlock(getInitializerBlock())
-                    .addInitializerBlock(getProcessorInitializerBlock())
                     .addMethods(methods);
 
             JavaFile mapperFile = JavaFile.builder(classPackage, typeSpecBuilder.build()).build();
@@ -158,12 +174,43 @@ public class ImportableClass {
     private TypeSpec.Builder addProcessorFields(TypeSpec.Builder builder) {
 
         for (Map.Entry<String, List<? extends TypeMirror>> entry : processFunctionClassesByVariable.entrySet()) {
-            builder.addField(get(ClassName.get(List.class), get(UnaryOperator.class, String.class)), entry.getKey().concat(PROCESSORS_SUFFIX));
+            builder.addField(get(ClassName.get(List.class), get(UnaryOperator.class, String.class)), entry.getKey().concat(PROCESSORS_SUFFIX), Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL);
+
+        }
+
+        return builder;
+
+    }
+
+    private TypeSpec.Builder addColumnOptionsFields(TypeSpec.Builder builder) {
 
+        for (String variableName : columnOptionsByVariable.keySet()) {
+            builder.addField(ColumnOptions.class, variableName.concat(COLUMN_OPTIONS_SUFFIX), Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL);
         }
+        builder.addField(String[].class, PLANNED_FIELDS, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL);
+        builder.addField(ColumnOptions[].class, PLANNED_COLUMN_OPTIONS, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL);
 
         return builder;
+    }
+
+    //the options are built once for all the mappers so the regex and the date format are not compiled again for every cell
+    private CodeBlock getColumnOptionsInitializerBlock() {
+
+        CodeBlock.Builder builder = CodeBlock.builder();
 
+        for (CodeBlock columnOptions : columnOptionsByVariable.values()) {
+            builder.addStatement(columnOptions);
+        }
+        builder.addStatement("$L = new $T[]{$L}", PLANNED_FIELDS, String.class, plannedFields
+                .stream()
+                .map(field -> CodeBlock.of("$S", field))
+                .collect(CodeBlock.joining(", ")));
+        builder.addStatement("$L = new $T[]{$L}", PLANNED_COLUMN_OPTIONS, ColumnOptions.class, String.join(", ", columnOptionsByVariable
+                .keySet()
+                .stream()
+                .map(variableName -> variableName.concat(COLUMN_OPTIONS_SUFFIX))
+                .collect(Collectors.toList())));
+        return builder.build();
     }
 
     private CodeBlock getProcessorInitializerBlock() {
@@ -171,10 +218,11 @@ public class ImportableClass {
         CodeBlock.Builder builder = CodeBlock.builder();
 
         for (Map.Entry<String, List<? extends TypeMirror>> entry : processFunctionClassesByVariable.entrySet()) {
-            builder.addStatement("$L = new $T<>()", entry.getKey().concat(PROCESSORS_SUFFIX), ArrayList.class);
-            for (TypeMirror mirror : entry.getValue()) {
-                builder.addStatement("$L.add(new $T().processFunction())", entry.getKey().concat(PROCESSORS_SUFFIX), mirror);
-            }
+            CodeBlock processors = entry.getValue()
+                    .stream()
+                    .map(mirror -> CodeBlock.of("new $T().processFunction()", mirror))
+                    .collect(CodeBlock.joining(", "));
+            builder.addStatement("$L = $T.unmodifiableList($T.asList($L))", entry.getKey().concat(PROCESSORS_SUFFIX), Collections.class, Arrays.class, processors);
         }
         return builder.build();
     }
@@ -188,13 +236,24 @@ public class ImportableClass {
         }
 
         String joinedSheetNames = sheetNames.length == 0 ? "" : "\"" + String.join("\",\"", sheetNames) + "\"";
-        return CodeBlock.builder()
+        CodeBlock.Builder builder = CodeBlock.builder()
                 .addStatement("hasHeader = $L", hasHeader)
                 .addStatement("isNamed = $L", isNamed)
                 .addStatement("sheetPositions = new $T<>($T.asList(new $T[]{$L}))", HashSet.class, Arrays.class, Integer.class, Arrays.toString(sheetIndexes).replaceAll("[\\[\\]]", ""))
                 .addStatement("sheetNames = new $T<>($T.asList(new $T[]{$L}))", HashSet.class, Arrays.class, String.class, joinedSheetNames)
-                .add(mapInitializingCode)
-                .build();
+                .add(mapInitializingCode);
+
+        //the mapper is shared by all the imports of an importer so nothing it returns can be changed
+        builder.addStatement("sheetPositions = $T.unmodifiableSet(sheetPositions)", Collections.class)
+                .addStatement("sheetNames = $T.unmodifiableSet(sheetNames)", Collections.class)
+                .addStatement("columnRequiredAppearances = $T.unmodifiableMap(columnRequiredAppearances)", Collections.class);
+        if (isNamed) {
+            builder.addStatement("columnNames = $T.unmodifiableMap(columnNames)", Collections.class)
+                    .addStatement("headerMatcher = new $T(columnNames)", HeaderMatcher.class);
+        } else {
+            builder.addStatement("columnPositions = $T.unmodifiableMap(columnPositions)", Collections.class);
+        }
+        return builder.build();
     }
 
     private CodeBlock getCodeBlockOrdinal() {
@@ -269,6 +328,14 @@ public class ImportableClass {
                 .returns(get(Map.class, String.class, String.class))
                 .addStatement("return columnNames")
                 .build());
+        if (isNamed) {
+            methodSpecs.add(MethodSpec.methodBuilder("getHeaderMatcher")
+                    .addModifiers(Modifier.PUBLIC)
+                    .addAnnotation(Override.class)
+                    .returns(HeaderMatcher.class)
+                    .addStatement("return headerMatcher")
+                    .build());
+        }
         methodSpecs.add(MethodSpec.methodBuilder("getColumnRequiredAppearances")
                 .addModifiers(Modifier.PUBLIC)
                 .addAnnotation(Override.class)
@@ -293,6 +360,13 @@ public class ImportableClass {
                 .returns(get(Set.class, String.class))
                 .addStatement("return sheetNames")
                 .build());
+        methodSpecs.add(MethodSpec.methodBuilder("getColumnPlan")
+                .addModifiers(Modifier.PUBLIC)
+                .addAnnotation(Override.class)
+                .returns(ColumnPlan.class)
+                .addParameter(get(ClassName.get(Map.class), ClassName.get(String.class), get(LinkedHashMap.class, String.class, Integer.class)), "columnPositions")
+                .addStatement("return new $T(columnPositions, $L, $L)", ColumnPlan.class, PLANNED_FIELDS, PLANNED_COLUMN_OPTIONS)
+                .build());
 
 
         return methodSpecs;
@@ -346,9 +420,11 @@ public class ImportableClass {
                 .addModifiers(Modifier.PUBLIC)
                 .returns(className)
                 .addParameter(get(ClassName.get(RowContext.class), get(classElement.asType())), "ctx")
-                .addParameter(Row.class, "row")
-                .addParameter(get(ClassName.get(Map.class), ClassName.get(String.class), get(LinkedHashMap.class, String.class, Integer.class)), "columnPositions")
+                .addParameter(SpreadsheetRow.class, "row")
+                .addParameter(ColumnPlan.class, "columnPlan")
                 .addStatement("$T result = new $T()", className, className)
+                .addStatement("$T importMetrics = ctx.getMetrics()", ImportMetrics.class)
+                .addStatement("long fieldStartNanos = 0L")
                 .addCode(generateMapSettersForInjectedData())
                 .addCode(generateMapSetters())
                 .addCode(generateValidationCheck())
@@ -376,8 +452,9 @@ public class ImportableClass {
                     codeBlockBuilder.add(setImportIndex(element));
                     break;
                 case UNMATCHED_COLUMNS:
-                    CodeBlock options = getOptions(element.getSimpleName().toString(), false, true, true, null, "");
-                    codeBlockBuilder.add(setUnmatchedColumns(element, options));
+                    //the unmatched columns are kept under the null key of the column positions
+                    int field = getPlannedField(element.getSimpleName().toString(), null, false, true, true, null, "");
+                    codeBlockBuilder.add(timeField(element.getSimpleName().toString(), setUnmatchedColumns(element, field)));
 
                     break;
                 default:
@@ -396,7 +473,7 @@ public class ImportableClass {
         String fieldName = element.getSimpleName().toString();
         String setterName = "set" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
 
-        codeBlockBuilder.addStatement("result.$L(row.getSheet().getSheetName())", setterName);
+        codeBlockBuilder.addStatement("result.$L(row.getSheetName())", setterName);
 
         return codeBlockBuilder.build();
     }
@@ -405,7 +482,7 @@ public class ImportableClass {
         CodeBlock.Builder codeBlockBuilder = CodeBlock.builder();
         String fieldName = element.getSimpleName().toString();
         String setterName = "set" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
-        codeBlockBuilder.addStatement("result.$L(row.getSheet().getWorkbook().getSheetIndex(row.getSheet()))", setterName);
+        codeBlockBuilder.addStatement("result.$L(row.getSheetIndex())", setterName);
 
         return codeBlockBuilder.build();
     }
@@ -430,7 +507,7 @@ public class ImportableClass {
         return codeBlockBuilder.build();
     }
 
-    private CodeBlock setUnmatchedColumns(VariableElement element, CodeBlock options) {
+    private CodeBlock setUnmatchedColumns(VariableElement element, int field) {
         CodeBlock.Builder codeBlockBuilder = CodeBlock.builder();
 
         String variableName = element.getSimpleName().toString();
@@ -448,9 +525,9 @@ public class ImportableClass {
             String innerGetterName = "get".concat(valueType.getSimpleName().toString());
             codeBlockBuilder
                     .addStatement("$T<$T, $T> $L = new $T<>()", Map.class, String.class, String.class, variableName + "Map", HashMap.class)
-                    .beginControlFlow("for($T<$T, $T> $L:columnPositions.getOrDefault(null, new $T<>()).entrySet())", Map.Entry.class, String.class, Integer.class, variableName + ENTRY_SUFFIX, LinkedHashMap.class)
-                    .addStatement(options)
-                    .addStatement("$L.put($L.getKey(), $T.$L(ctx, row, $L.getValue(), $L))", variableName + "Map", variableName + ENTRY_SUFFIX, ColumnUtil.class, innerGetterName, variableName + ENTRY_SUFFIX, variableName + OPTIONS_SUFFIX)
+                    .add(getPlannedColumns(variableName, field))
+                    .beginControlFlow("for(int $L = 0; $L < $L.length; $L++)", variableName + INDEX_SUFFIX, variableName + INDEX_SUFFIX, variableName + COLUMNS_SUFFIX, variableName + INDEX_SUFFIX)
+                    .addStatement("$L.put($L[$L], $T.$L(ctx, row, $L[$L], $L[$L]))", variableName + "Map", variableName + COLUMN_NAMES_SUFFIX, variableName + INDEX_SUFFIX, ColumnUtil.class, innerGetterName, variableName + COLUMNS_SUFFIX, variableName + INDEX_SUFFIX, variableName + OPTIONS_SUFFIX, variableName + INDEX_SUFFIX)
                     .endControlFlow()
                     .addStatement("result.$L($L)", setterName, variableName + "Map");
 
@@ -484,36 +561,36 @@ public class ImportableClass {
 
             String preProcessors = processFunctionClassesByVariable.get(variableName) != null ? variableName + PROCESSORS_SUFFIX : null;
 
-            CodeBlock options = getOptions(variableName, isRequired, trim, formulaAllowed, preProcessors, matches);
+            int field = getPlannedField(variableName, variableName, isRequired, trim, formulaAllowed, preProcessors, matches);
 
 
             for (Class<?> clazz : mainClasses) { //we create the code for the simple types
                 if (typeUtils.isSameType(elementType, environment.getElementUtils().getTypeElement(clazz.getCanonicalName()).asType())) {
                     validateNotMultipleAppearence(element);
-                    codeBlockBuilder.add(setSimpleField(variableName, setterName, getterName, options));
+                    codeBlockBuilder.add(timeField(variableName, setSimpleField(setterName, getterName, field)));
                     continue ELEMENTS;
                 }
             }
 
             if (container.getQualifiedName().toString().equals(List.class.getCanonicalName())) {
-                codeBlockBuilder.add(setListField(elementType, variableName, setterName, options));
+                codeBlockBuilder.add(timeField(variableName, setListField(elementType, variableName, setterName, field)));
                 continue;
             }
 
             if (container.getQualifiedName().toString().equals(Map.class.getCanonicalName())) {
-                codeBlockBuilder.add(setMapField(elementType, variableName, setterName, options));
+                codeBlockBuilder.add(timeField(variableName, setMapField(elementType, variableName, setterName, field)));
                 continue;
             }
 
 
             if (((TypeElement) container).getKind().equals(ElementKind.ENUM)) {
                 validateNotMultipleAppearence(element);
-                codeBlockBuilder.add(setEnumField(variableName, setterName, element, options));
+                codeBlockBuilder.add(timeField(variableName, setEnumField(setterName, element, field)));
                 continue;
             }
 
             validateNotMultipleAppearence(element);
-            codeBlockBuilder.add(setCustomClassField(element, variableName, setterName, (TypeElement) container, options));
+            codeBlockBuilder.add(timeField(variableName, setCustomClassField(element, variableName, setterName, (TypeElement) container, field)));
 
         }
 
@@ -521,6 +598,19 @@ public class ImportableClass {
         return codeBlockBuilder.build();
     }
 
+    //the time spent reading a field is only measured when the import collects metrics
+    private CodeBlock timeField(String fieldName, CodeBlock fieldCode) {
+        return CodeBlock.builder()
+                .beginControlFlow("if(importMetrics != null)")
+                .addStatement("fieldStartNanos = System.nanoTime()")
+                .endControlFlow()
+                .add(fieldCode)
+                .beginControlFlow("if(importMetrics != null)")
+                .addStatement("importMetrics.recordColumn($S, System.nanoTime() - fieldStartNanos)", fieldName)
+                .endControlFlow()
+                .build();
+    }
+
     private void validateNotMultipleAppearence(Element element) {
         if (element.getAnnotation(Named.class) != null && element.getAnnotation(Named.class).maximumMatches() > 1) {
             messager.printMessage(Diagnostic.Kind.ERROR, "Allowing multiple appearances for a column but expecting to import to a non collection would cause unpredictable behaviour and as such is not allowed! (column: " + element.getSimpleName() + ")");
@@ -531,49 +621,58 @@ public class ImportableClass {
         CodeBlock.Builder codeBlockBuilder = CodeBlock.builder();
 
         if (typeUtils.isAssignable(classElement.asType(), environment.getElementUtils().getTypeElement(Validatable.class.getCanonicalName()).asType())) {
-            codeBlockBuilder.addStatement("ctx.addValidationProblems(result.validate(row.getSheet().getSheetName(), row.getRowNum()))");
+            codeBlockBuilder.addStatement("ctx.addValidationProblems(result.validate(row.getSheetName(), row.getRowNum()))");
         }
 
 
         return codeBlockBuilder.build();
     }
 
-    private CodeBlock getOptions(String variableName, boolean isRequired, boolean trim, boolean formulaAllowed, String processFunctionNames, String matches) {
-        CodeBlock.Builder options = CodeBlock.builder();
-        options.add("$T $L = $T.builder()", ColumnOptions.class, variableName + OPTIONS_SUFFIX, ColumnOptions.class);
-        options.add(".trim($L)", trim);
-        options.add(".formulaAllowed($L)", formulaAllowed);
-        options.add(".isRequired($L)", isRequired);
-        options.add(".matches($S)", matches);
-        options.add(".columnName($L.getKey())", variableName + ENTRY_SUFFIX);
+    //returns the index of the field in the column plan
+    private int getPlannedField(String variableName, String plannedField, boolean isRequired, boolean trim, boolean formulaAllowed, String processFunctionNames, String matches) {
+        CodeBlock.Builder columnOptions = CodeBlock.builder();
+        columnOptions.add("$L = $T.builder()", variableName + COLUMN_OPTIONS_SUFFIX, ColumnOptions.class);
+        columnOptions.add(".trim($L)", trim);
+        columnOptions.add(".formulaAllowed($L)", formulaAllowed);
+        columnOptions.add(".isRequired($L)", isRequired);
+        columnOptions.add(".matches($S)", matches);
         if (processFunctionNames != null) {
-            options.add(".preProcess($L)", processFunctionNames);
+            columnOptions.add(".preProcess($L)", processFunctionNames);
 
         }
 
-        options.add(".build()");
-        return options.build();
+        columnOptions.add(".build()");
+        columnOptionsByVariable.put(variableName, columnOptions.build());
+        plannedFields.add(plannedField);
+
+        return plannedFields.size() - 1;
+    }
+
+    //all the columns found for a field that can appear multiple times
+    private CodeBlock getPlannedColumns(String variableName, int field) {
+        return CodeBlock.builder()
+                .addStatement("int[] $L = columnPlan.getColumns($L)", variableName + COLUMNS_SUFFIX, field)
+                .addStatement("$T[] $L = columnPlan.getColumnNames($L)", String.class, variableName + COLUMN_NAMES_SUFFIX, field)
+                .addStatement("$T[] $L = columnPlan.getAllColumnOptions($L)", ColumnOptions.class, variableName + OPTIONS_SUFFIX, field)
+                .build();
     }
 
-    private CodeBlock setCustomClassField(VariableElement element, String variableName, String setterName, TypeElement container, CodeBlock options) {
+    private CodeBlock setCustomClassField(VariableElement element, String variableName, String setterName, TypeElement container, int field) {
         boolean constructorIsPresent = getCustomClassConstructor(container).isPresent();
 
         if (constructorIsPresent) {
             String tempStringVariableName = variableName.concat(STRING_SUFFIX);
             return CodeBlock.builder()
-                    .beginControlFlow("if(columnPositions.containsKey($S))", variableName)
-                    .addStatement("$T $L=null", String.class, tempStringVariableName)
-                    .addStatement("$T<$T, $T> $L=columnPositions.get($S).entrySet().iterator().next()", Map.Entry.class, String.class, Integer.class, variableName + ENTRY_SUFFIX, variableName)
-                    .addStatement(options)
-                    .addStatement("$L = $T.getString(ctx, row, $L.getValue(), $L)", tempStringVariableName, ColumnUtil.class, variableName + ENTRY_SUFFIX, variableName + OPTIONS_SUFFIX)
+                    .beginControlFlow("if(columnPlan.isPresent($L))", field)
+                    .addStatement("$T $L = $T.getString(ctx, row, columnPlan.getColumn($L), columnPlan.getColumnOptions($L))", String.class, tempStringVariableName, ColumnUtil.class, field, field)
                     .beginControlFlow("if ($L != null)", tempStringVariableName)
                     .beginControlFlow("try")
                     .addStatement("result.$L(new $T($L))", setterName, element.asType(), tempStringVariableName)
                     .nextControlFlow("catch ($T ex)", InstantiationProblem.class)
-                    .addStatement("ctx.addValidationProblems(ex.getValidationProblems());")
+                    .addStatement("ctx.addValidationProblems(ex.getValidationProblems())")
                     .nextControlFlow("catch ($T ex)", Exception.class)
                     .addStatement("log.error(ex.getMessage(), ex)")
-                    .addStatement("ctx.addValidationProblem(new $T(row.getSheet().getSheetName(), row.getRowNum(), $L.getValue(), $L.getKey(), $L));", ValueFormatProblem.class, variableName + ENTRY_SUFFIX, variableName + ENTRY_SUFFIX, tempStringVariableName)
+                    .addStatement("ctx.addValidationProblem(new $T(row.getSheetName(), row.getRowNum(), columnPlan.getColumn($L), columnPlan.getColumnName($L), $L))", ValueFormatProblem.class, field, field, tempStringVariableName)
                     .endControlFlow()
                     .endControlFlow()
                     .endControlFlow()
@@ -594,7 +693,7 @@ public class ImportableClass {
                 .findFirst();
     }
 
-    private CodeBlock setMapField(TypeMirror elementType, String variableName, String setterName, CodeBlock options) {
+    private CodeBlock setMapField(TypeMirror elementType, String variableName, String setterName, int field) {
 
         Symbol.TypeSymbol keyType = ((Type.ClassType) elementType).getTypeArguments().get(0).tsym;
         Symbol.TypeSymbol valueType = ((Type.ClassType) elementType).getTypeArguments().get(1).tsym;
@@ -604,13 +703,13 @@ public class ImportableClass {
         }
         if (mainClassesString.contains(valueType.getSimpleName().toString())) {
             String innerGetterName = "get".concat(valueType.getSimpleName().toString());
-            String entryGetter = keyType.getSimpleName().toString().equals(STRING_SUFFIX) ? "getKey" : "getValue";
+            String keys = keyType.getSimpleName().toString().equals(STRING_SUFFIX) ? variableName + COLUMN_NAMES_SUFFIX : variableName + COLUMNS_SUFFIX;
 
             return CodeBlock.builder()
                     .addStatement("$T<$T, $T> $L = new $T<>()", Map.class, keyType.asType(), valueType.asType(), variableName + "Map", HashMap.class)
-                    .beginControlFlow("for($T<$T, $T> $L : columnPositions.getOrDefault($S, new $T<>()).entrySet())", Map.Entry.class, String.class, Integer.class, variableName + ENTRY_SUFFIX, variableName, LinkedHashMap.class)
-                    .addStatement(options)
-                    .addStatement("$L.put($L.$L(), $T.$L(ctx, row, $L.getValue(), $L))", variableName + "Map", variableName + ENTRY_SUFFIX, entryGetter, ColumnUtil.class, innerGetterName, variableName + ENTRY_SUFFIX, variableName + OPTIONS_SUFFIX)
+                    .add(getPlannedColumns(variableName, field))
+                    .beginControlFlow("for(int $L = 0; $L < $L.length; $L++)", variableName + INDEX_SUFFIX, variableName + INDEX_SUFFIX, variableName + COLUMNS_SUFFIX, variableName + INDEX_SUFFIX)
+                    .addStatement("$L.put($L[$L], $T.$L(ctx, row, $L[$L], $L[$L]))", variableName + "Map", keys, variableName + INDEX_SUFFIX, ColumnUtil.class, innerGetterName, variableName + COLUMNS_SUFFIX, variableName + INDEX_SUFFIX, variableName + OPTIONS_SUFFIX, variableName + INDEX_SUFFIX)
                     .endControlFlow()
                     .addStatement("result.$L($L)", setterName, variableName + "Map")
                     .build();
@@ -623,15 +722,15 @@ public class ImportableClass {
 
     }
 
-    private CodeBlock setListField(TypeMirror elementType, String variableName, String setterName, CodeBlock options) {
+    private CodeBlock setListField(TypeMirror elementType, String variableName, String setterName, int field) {
         Symbol.TypeSymbol innerType = ((Type.ClassType) elementType).getTypeArguments().get(0).tsym;
         if (mainClassesString.contains(innerType.getSimpleName().toString())) {
             String innerGetterName = "get".concat(innerType.getSimpleName().toString());
             return CodeBlock.builder()
                     .addStatement("$T<$T> $L = new $T<>()", List.class, innerType.asType(), variableName + "List", ArrayList.class)
-                    .beginControlFlow("for($T<$T, $T> $L:columnPositions.getOrDefault($S, new $T<>()).entrySet())", Map.Entry.class, String.class, Integer.class, variableName + ENTRY_SUFFIX, variableName, LinkedHashMap.class)
-                    .addStatement(options)
-                    .addStatement("$L.add($T.$L(ctx, row, $L.getValue(), $L))", variableName + "List", ColumnUtil.class, innerGetterName, variableName + ENTRY_SUFFIX, variableName + OPTIONS_SUFFIX)
+                    .add(getPlannedColumns(variableName, field))
+                    .beginControlFlow("for(int $L = 0; $L < $L.length; $L++)", variableName + INDEX_SUFFIX, variableName + INDEX_SUFFIX, variableName + COLUMNS_SUFFIX, variableName + INDEX_SUFFIX)
+                    .addStatement("$L.add($T.$L(ctx, row, $L[$L], $L[$L]))", variableName + "List", ColumnUtil.class, innerGetterName, variableName + COLUMNS_SUFFIX, variableName + INDEX_SUFFIX, variableName + OPTIONS_SUFFIX, variableName + INDEX_SUFFIX)
                     .endControlFlow()
                     .addStatement("result.$L($L)", setterName, variableName + "List")
                     .build();
@@ -643,28 +742,24 @@ public class ImportableClass {
 
     }
 
-    private CodeBlock setSimpleField(String variableName, String setterName, String getterName, CodeBlock options) {
+    private CodeBlock setSimpleField(String setterName, String getterName, int field) {
         return CodeBlock.builder()
-                .beginControlFlow("if(columnPositions.containsKey($S))", variableName)
-                .addStatement("$T<$T, $T> $L=columnPositions.get($S).entrySet().iterator().next()", Map.Entry.class, String.class, Integer.class, variableName + ENTRY_SUFFIX, variableName)
-                .addStatement(options)
-                .addStatement("result.$L($T.$L(ctx, row, $L.getValue(), $L))", setterName, ColumnUtil.class, getterName, variableName + ENTRY_SUFFIX, variableName + OPTIONS_SUFFIX)
+                .beginControlFlow("if(columnPlan.isPresent($L))", field)
+                .addStatement("result.$L($T.$L(ctx, row, columnPlan.getColumn($L), columnPlan.getColumnOptions($L)))", setterName, ColumnUtil.class, getterName, field, field)
                 .endControlFlow()
                 .build();
     }
 
-    private CodeBlock setEnumField(String variableName, String setterName, VariableElement element, CodeBlock options) {
+    private CodeBlock setEnumField(String setterName, VariableElement element, int field) {
 
         return CodeBlock.builder()
-                .beginControlFlow("if(columnPositions.containsKey($S))", variableName)
-                .addStatement("$T<$T, $T> $L=columnPositions.get($S).entrySet().iterator().next()", Map.Entry.class, String.class, Integer.class, variableName + ENTRY_SUFFIX, variableName)
-                .addStatement(options)
-                .addStatement("$T stringEnum=$T.getString(ctx, row, $L.getValue(), $L)", String.class, ColumnUtil.class, variableName + ENTRY_SUFFIX, variableName + OPTIONS_SUFFIX)
+                .beginControlFlow("if(columnPlan.isPresent($L))", field)
+                .addStatement("$T stringEnum=$T.getString(ctx, row, columnPlan.getColumn($L), columnPlan.getColumnOptions($L))", String.class, ColumnUtil.class, field, field)
                 .beginControlFlow("if(stringEnum!=null)")
                 .beginControlFlow("try")
                 .addStatement("result.$L($T.valueOf(stringEnum))", setterName, element.asType())
                 .nextControlFlow("catch ($T e)", IllegalArgumentException.class)
-                .addStatement("ctx.addValidationProblem(new $T(row.getSheet().getSheetName(), row.getRowNum(), $L.getValue(), $L.getKey(), stringEnum, $T.class));", ValueFormatEnumProblem.class, variableName + ENTRY_SUFFIX, variableName + ENTRY_SUFFIX, element.asType())
+                .addStatement("ctx.addValidationProblem(new $T(row.getSheetName(), row.getRowNum(), columnPlan.getColumn($L), columnPlan.getColumnName($L), stringEnum, $T.class))", ValueFormatEnumProblem.class, field, field, element.asType())
                 .endControlFlow()
                 .endControlFlow()
                 .endControlFlow()
@@ -0,0 +1,80 @@
+package ro.nom.vmt.spreadsheet_importer.importing;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+//A consumer receiving the rows in lists of batchSize, the last list of an import can be shorter
+//It only describes the consumer, the rows waiting to be delivered are kept by a Batch made for every import
+class BatchConsumer<T, E> {
+
+    private final int batchSize;
+    private final Predicate<RowContext<T>> filter;
+    private final Function<RowContext<T>, E> element;
+    private final Consumer<List<E>> consumer;
+
+    BatchConsumer(int batchSize, Predicate<RowContext<T>> filter, Function<RowContext<T>, E> element, Consumer<List<E>> consumer) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("A batch must hold at least one row");
+        }
+        this.batchSize = batchSize;
+        this.filter = filter;
+        this.element = element;
+        this.consumer = consumer;
+    }
+
+    //onFailure gets the rows of a batch whose consumer failed together with the exception
+    Batch newBatch(BiConsumer<List<RowContext<T>>, RuntimeException> onFailure) {
+        return new Batch(onFailure);
+    }
+
+    //the consumer is called while holding the lock so the batches are delivered one at a time even when the rows are
+    //consumed by several threads
+    class Batch {
+        private final BiConsumer<List<RowContext<T>>, RuntimeException> onFailure;
+        private List<E> rows = new ArrayList<>();
+        //the rows the elements were made from, so a failed batch can be reported on every one of them
+        private List<RowContext<T>> rowContexts = new ArrayList<>();
+
+        private Batch(BiConsumer<List<RowContext<T>>, RuntimeException> onFailure) {
+            this.onFailure = onFailure;
+        }
+
+        synchronized void add(RowContext<T> rowContext) {
+            if (!filter.test(rowContext)) {
+                return;
+            }
+            rows.add(element.apply(rowContext));
+            rowContexts.add(rowContext);
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        synchronized void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            //the consumer gets a new list every time so it can keep it
+            List<E> batch = rows;
+            List<RowContext<T>> batchRowContexts = rowContexts;
+            rows = new ArrayList<>(batchSize);
+            rowContexts = new ArrayList<>(batchSize);
+            try {
+                consumer.accept(batch);
+            } catch (RuntimeException e) {
+                onFailure.accept(batchRowContexts, e);
+            }
+        }
+    }
+}
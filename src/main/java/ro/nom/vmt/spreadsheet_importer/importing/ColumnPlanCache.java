@@ -0,0 +1,79 @@
+package ro.nom.vmt.spreadsheet_importer.importing;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.apache.poi.ss.usermodel.CellType;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+import ro.nom.vmt.spreadsheet_importer.util.ColumnPlan;
+
+import java.util.*;
+
+//Remembers the columns resolved for the last headers seen by an importer so the files made from the same template skip
+//matching their header again, the least recently used header is dropped once the cache is full
+class ColumnPlanCache {
+
+    private final Map<List<String>, Entry> entries;
+
+    ColumnPlanCache(int maxEntries) {
+        this.entries = new LinkedHashMap<List<String>, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<String>, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    //the type and the text of every header cell, the hash of the list is the fingerprint of the layout and comparing
+    //the lists makes sure two different headers with the same hash are never mixed up
+    static List<String> getKey(SpreadsheetRow headerRow) {
+        List<String> key = new ArrayList<>(headerRow.getLastCellNum() * 2);
+        for (int i = 0; i < headerRow.getLastCellNum(); i++) {
+            CellType cellType = headerRow.getCellType(i);
+            if (cellType == null || cellType.equals(CellType.BLANK)) {
+                key.add(null);
+                key.add(null);
+            } else {
+                key.add(cellType.name());
+                key.add(headerRow.getFormattedCellValue(i));
+            }
+        }
+        return key;
+    }
+
+    synchronized Entry get(List<String> key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(List<String> key, Entry entry) {
+        entries.put(key, entry);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    static class Entry {
+        //the positions checked for the required columns, kept to report the missing columns again
+        private final Map<String, LinkedHashMap<String, Integer>> columnPositions;
+        //null when some required columns are missing
+        private final ColumnPlan columnPlan;
+
+        Entry(Map<String, LinkedHashMap<String, Integer>> columnPositions, ColumnPlan columnPlan) {
+            this.columnPositions = columnPositions;
+            this.columnPlan = columnPlan;
+        }
+
+        Map<String, LinkedHashMap<String, Integer>> getColumnPositions() {
+            return columnPositions;
+        }
+
+        ColumnPlan getColumnPlan() {
+            return columnPlan;
+        }
+    }
+}
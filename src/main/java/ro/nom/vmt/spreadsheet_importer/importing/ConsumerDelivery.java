@@ -0,0 +1,75 @@
+package ro.nom.vmt.spreadsheet_importer.importing;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.nom.vmt.spreadsheet_importer.problems.ConsumerProblem;
+import ro.nom.vmt.spreadsheet_importer.util.Pair;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+//Runs the consumers of a single import on an executor so a slow consumer does not hold up the reading of the file
+//At most maxInFlight rows wait for their consumers, after that the importing thread waits for a row to be delivered
+class ConsumerDelivery<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsumerDelivery.class);
+
+    private final Executor executor;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    //the failed rows with their problems, reported in the order of the rows once every delivery is done
+    private final ConcurrentLinkedQueue<Pair<RowContext<T>, ConsumerProblem>> failures = new ConcurrentLinkedQueue<>();
+
+    ConsumerDelivery(Executor executor, int maxInFlight) {
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    void deliver(RowContext<T> rowContext, Runnable consumers) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The import was interrupted", e);
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    consumers.run();
+                } catch (Exception e) {
+                    log.warn("The consumers failed for row {}@#{} associated with import index: {}", rowContext.getSheetName(), rowContext.getRowNo(), rowContext.getImportIndex(), e);
+                    failures.add(new Pair<>(rowContext, new ConsumerProblem(rowContext.getSheetName(), rowContext.getRowNo(), e)));
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    //waits for the rows that are still being delivered and returns the ones that failed with their problems
+    List<Pair<RowContext<T>, ConsumerProblem>> awaitDeliveries() {
+        inFlight.acquireUninterruptibly(maxInFlight);
+        inFlight.release(maxInFlight);
+        return new ArrayList<>(failures)
+                .stream()
+                .sorted(Comparator.comparingLong(pair -> pair.p1.getImportIndex()))
+                .collect(Collectors.toList());
+    }
+}
@@ -7,14 +7,18 @@ package ro.nom.vmt.spreadsheet_importer.importing;
  * This file as well as the project have an MIT license
  */
 
-import org.apache.poi.ss.usermodel.Row;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ro.nom.vmt.spreadsheet_importer.interfaces.BaseImportMapper;
 import ro.nom.vmt.spreadsheet_importer.interfaces.Problem;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+import ro.nom.vmt.spreadsheet_importer.problems.ConsumerProblem;
 import ro.nom.vmt.spreadsheet_importer.problems.RowProblem;
+import ro.nom.vmt.spreadsheet_importer.util.ColumnPlan;
+import ro.nom.vmt.spreadsheet_importer.util.Pair;
 
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -23,6 +27,14 @@ public class ImportData<T> {
     private static final Logger log = LoggerFactory.getLogger(ImportData.class);
 
     private final BaseImportMapper<T> mapper;
+    //when false the row contexts are dropped once the consumers are done with them and only the counters are kept
+    private final boolean retainRows;
+    //null when the importer does not collect metrics
+    private final ImportMetrics metrics;
+    //null when the importer does not have batch consumers
+    private final RowBatches<T> rowBatches;
+    //null when the consumers are called by the thread mapping the rows
+    private final ConsumerDelivery<T> consumerDelivery;
 
 
     private final List<RowContext<T>> rowContexts = new ArrayList<>();
@@ -31,17 +43,142 @@ public class ImportData<T> {
     private int noOfSheets = 0;
     private long importIndex = 0L;
 
+    private long rowNoTotal = 0L;
+    private long rowNoValid = 0L;
+    private long rowNoInvalid = 0L;
+    private long rowProblemNo = 0L;
+    private final Map<Class<? extends Problem>, Long> rowProblemCounts = new LinkedHashMap<>();
+    //the retained rows that have at least one problem of the class, in the order they were submitted
+    private final Map<Class<? extends Problem>, List<RowContext<T>>> rowContextsByProblemClass = new HashMap<>();
+    //the rows of a pipelined import can be submitted out of order, the index is sorted again before it is used
+    private long lastSubmittedImportIndex = 0L;
+    private boolean problemIndexSorted = true;
+    //the mapped rows are looked up by identity so rows that are equal to each other are not mixed up
+    private final Map<T, RowContext<T>> rowContextsByRow = new IdentityHashMap<>();
+    private final Map<Pair<String, Integer>, RowContext<T>> rowContextsByPosition = new HashMap<>();
+
 
     ImportData(BaseImportMapper<T> mapper) {
+        this(mapper, true);
+    }
+
+    ImportData(BaseImportMapper<T> mapper, boolean retainRows) {
+        this(mapper, retainRows, null);
+    }
+
+    ImportData(BaseImportMapper<T> mapper, boolean retainRows, ImportMetrics metrics) {
+        this(mapper, retainRows, metrics, null, null);
+    }
+
+    ImportData(BaseImportMapper<T> mapper, boolean retainRows, ImportMetrics metrics, RowBatches<T> rowBatches, ConsumerDelivery<T> consumerDelivery) {
         this.mapper = mapper;
+        this.retainRows = retainRows;
+        this.metrics = metrics;
+        this.rowBatches = rowBatches;
+        this.consumerDelivery = consumerDelivery;
     }
 
-    protected void submit(RowContext<T> rowContext) {
-        this.rowContexts.add(rowContext);
+    //the workers of a pipelined import submit their rows at the same time
+    protected synchronized void submit(RowContext<T> rowContext) {
+        if (retainRows && !rowContext.isReserved) {
+            this.rowContexts.add(rowContext);
+        }
+        rowNoTotal++;
+        if (rowContext.isValid()) {
+            rowNoValid++;
+        } else {
+            rowNoInvalid++;
+        }
+        rowProblemNo += rowContext.getProblems().size();
+        rowContext.getProblems().forEach(problem -> rowProblemCounts.merge(problem.getClass(), 1L, Long::sum));
+        if (retainRows) {
+            indexProblems(rowContext);
+            indexRow(rowContext);
+        }
+    }
+
+    //the consumers of a row called after it was submitted failed, the row is counted again as an invalid one
+    protected synchronized void addConsumerProblem(RowContext<T> rowContext, ConsumerProblem problem) {
+        if (rowContext.isValid()) {
+            rowNoValid--;
+            rowNoInvalid++;
+        }
+        //a row in the failed batches of several consumers is only indexed once
+        boolean indexed = rowContext.getProblems().stream().anyMatch(rowProblem -> rowProblem.getClass() == problem.getClass());
+        rowContext.addConsumerProblem(problem);
+        rowProblemNo++;
+        rowProblemCounts.merge(problem.getClass(), 1L, Long::sum);
+        if (retainRows && !indexed) {
+            rowContextsByProblemClass.computeIfAbsent(problem.getClass(), k -> new ArrayList<>()).add(rowContext);
+            //the failures of the batches and of the single rows are reported one after the other
+            problemIndexSorted = false;
+        }
+    }
+
+    private void indexRow(RowContext<T> rowContext) {
+        if (rowContext.getMappedRow() != null) {
+            rowContextsByRow.put(rowContext.getMappedRow(), rowContext);
+        }
+        rowContextsByPosition.put(new Pair<>(rowContext.getSheetName(), rowContext.getRowNo()), rowContext);
+    }
+
+    private void indexProblems(RowContext<T> rowContext) {
+        if (rowContext.getProblems().isEmpty()) {
+            return;
+        }
+        if (rowContext.getImportIndex() < lastSubmittedImportIndex) {
+            problemIndexSorted = false;
+        }
+        lastSubmittedImportIndex = rowContext.getImportIndex();
+        rowContext.getProblems()
+                .stream()
+                .map(Problem::getClass)
+                .distinct()
+                .forEach(problemClass -> rowContextsByProblemClass.computeIfAbsent(problemClass, k -> new ArrayList<>()).add(rowContext));
+    }
+
+    //the row contexts with problems of the class or of any of its subclasses, in the order of the rows
+    private synchronized List<RowContext<T>> getRowContextsWithProblems(Class<? extends Problem> clazz, boolean includeSubclasses) {
+        if (!problemIndexSorted) {
+            rowContextsByProblemClass.values().forEach(list -> list.sort(Comparator.comparingLong(RowContext::getImportIndex)));
+            problemIndexSorted = true;
+        }
+        if (!includeSubclasses) {
+            return rowContextsByProblemClass.getOrDefault(clazz, Collections.emptyList());
+        }
+        List<List<RowContext<T>>> matching = rowContextsByProblemClass.entrySet()
+                .stream()
+                .filter(e -> clazz.isAssignableFrom(e.getKey()))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+        if (matching.size() == 1) {
+            return matching.get(0);
+        }
+        //a row can have problems of several of the subclasses
+        return matching.stream()
+                .flatMap(Collection::stream)
+                .distinct()
+                .sorted(Comparator.comparingLong(RowContext::getImportIndex))
+                .collect(Collectors.toList());
     }
 
-    protected T process(Row row, Map<String, LinkedHashMap<String, Integer>> columnPositions, Importer.Options<T> options) {
-        return this.newRowContext(this, options).map(row, columnPositions);
+    //the row context is added before it is mapped so the order of the rows does not depend on the order they are mapped in
+    protected RowContext<T> reserveRowContext(Importer.Options<T> options) {
+        RowContext<T> rowContext = this.newRowContext(this, options);
+        rowContext.isReserved = true;
+        if (retainRows) {
+            this.rowContexts.add(rowContext);
+        }
+        return rowContext;
+    }
+
+    //drops the reserved row contexts that were never submitted so the retained rows match the counters
+    protected synchronized void discardUnsubmittedRowContexts() {
+        rowContexts.removeIf(rowContext -> rowContext.isReserved && !rowContext.isSubmitted());
+    }
+
+    protected T process(SpreadsheetRow row, ColumnPlan columnPlan, Importer.Options<T> options) {
+        return this.newRowContext(this, options).map(row, columnPlan);
     }
 
     protected RowContext<T> newRowContext(ImportData<T> importData, Importer.Options<T> options) {
@@ -54,6 +191,30 @@ public class ImportData<T> {
         this.problems.add(problem);
     }
 
+    //the rows are numbered after the given import index, the first one gets importIndex + 1
+    protected void setImportIndex(long importIndex) {
+        this.importIndex = importIndex;
+    }
+
+    //adds everything imported in the other import data after what was already imported
+    protected void merge(ImportData<T> importData) {
+        this.rowContexts.addAll(importData.rowContexts);
+        this.problems.addAll(importData.problems);
+        this.rowNoTotal += importData.rowNoTotal;
+        this.rowNoValid += importData.rowNoValid;
+        this.rowNoInvalid += importData.rowNoInvalid;
+        this.rowProblemNo += importData.rowProblemNo;
+        this.rowContextsByRow.putAll(importData.rowContextsByRow);
+        this.rowContextsByPosition.putAll(importData.rowContextsByPosition);
+        importData.rowContextsByProblemClass.forEach((problemClass, list) -> rowContextsByProblemClass.computeIfAbsent(problemClass, k -> new ArrayList<>()).addAll(list));
+        if (!importData.problemIndexSorted || importData.rowContextsByProblemClass.values().stream().anyMatch(list -> list.get(0).getImportIndex() < lastSubmittedImportIndex)) {
+            this.problemIndexSorted = false;
+        }
+        this.lastSubmittedImportIndex = Math.max(this.lastSubmittedImportIndex, importData.lastSubmittedImportIndex);
+        importData.rowProblemCounts.forEach((problemClass, count) -> rowProblemCounts.merge(problemClass, count, Long::sum));
+        this.importIndex = Math.max(this.importIndex, importData.importIndex);
+    }
+
     protected void incrNoOfSheets() {
         noOfSheets++;
     }
@@ -79,9 +240,8 @@ public class ImportData<T> {
     }
 
     public List<T> getInvalidRows(Class<? extends Problem> validationProblemClass) {
-        return rowContexts
+        return getRowContextsWithProblems(validationProblemClass, true)
                 .stream()
-                .filter(rowContext -> rowContext.isInvalid(validationProblemClass))
                 .map(RowContext::getMappedRow)
                 .collect(Collectors.toList());
     }
@@ -94,29 +254,45 @@ public class ImportData<T> {
     }
 
     public long getRowNoTotal() {
-        return rowContexts.size();
+        return rowNoTotal;
     }
 
     public long getRowNoValid() {
-        return rowContexts
-                .stream()
-                .filter(RowContext::isValid)
-                .count();
+        return rowNoValid;
     }
 
     public long getRowNoInvalid() {
-        return rowContexts
-                .stream()
-                .filter(RowContext::isInvalid)
-                .count();
+        return rowNoInvalid;
+    }
+
+    //the number of problems found for each problem class, including the problems of the rows that were not retained
+    public Map<Class<? extends Problem>, Long> getProblemCounts() {
+        Map<Class<? extends Problem>, Long> problemCounts = new LinkedHashMap<>();
+        this.problems.forEach(problem -> problemCounts.merge(problem.getClass(), 1L, Long::sum));
+        rowProblemCounts.forEach((problemClass, count) -> problemCounts.merge(problemClass, count, Long::sum));
+        return problemCounts;
+    }
+
+    public boolean isRetainingRows() {
+        return retainRows;
+    }
+
+    //null unless the importer was built with metrics
+    public ImportMetrics getMetrics() {
+        return metrics;
+    }
+
+    RowBatches<T> getRowBatches() {
+        return rowBatches;
+    }
+
+    ConsumerDelivery<T> getConsumerDelivery() {
+        return consumerDelivery;
     }
 
 
     public boolean isValid() {
-        return this.problems.isEmpty()
-                && rowContexts
-                .stream()
-                .allMatch(RowContext::isValid);
+        return this.problems.isEmpty() && rowNoInvalid == 0;
     }
 
     public List<Problem> getValidationProblems() {
@@ -127,31 +303,95 @@ public class ImportData<T> {
     }
 
     public List<RowProblem> getValidationProblems(T data) {
-        return rowContexts
-                .stream()
-                .filter(rowContext -> rowContext.getMappedRow().equals(data))
-                .findFirst()
-                .map(RowContext::getProblems)
-                .orElseThrow(NoSuchElementException::new);
+        return getRowContext(data).getProblems();
+    }
+
+    public List<RowProblem> getValidationProblems(String sheetName, int rowNo) {
+        return getRowContext(sheetName, rowNo).getProblems();
+    }
+
+    public List<RowProblem> getValidationProblemsByImportIndex(long importIndex) {
+        return getRowContextByImportIndex(importIndex).getProblems();
+    }
+
+    public T getRow(String sheetName, int rowNo) {
+        return getRowContext(sheetName, rowNo).getMappedRow();
+    }
+
+    public T getRowByImportIndex(long importIndex) {
+        return getRowContextByImportIndex(importIndex).getMappedRow();
+    }
+
+    //only the instances returned by the import are found, any other row is not found even when it is equal to one of them
+    public synchronized RowContext<T> getRowContext(T data) {
+        RowContext<T> rowContext = rowContextsByRow.get(data);
+        if (rowContext == null) {
+            throw new NoSuchElementException();
+        }
+        return rowContext;
+    }
+
+    public synchronized RowContext<T> getRowContext(String sheetName, int rowNo) {
+        RowContext<T> rowContext = rowContextsByPosition.get(new Pair<>(sheetName, rowNo));
+        if (rowContext == null) {
+            throw new NoSuchElementException();
+        }
+        return rowContext;
+    }
+
+    //the retained rows are kept in the order of their import indexes which only have gaps when an import failed
+    public synchronized RowContext<T> getRowContextByImportIndex(long importIndex) {
+        if (rowContexts.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        long position = importIndex - rowContexts.get(0).getImportIndex();
+        if (position >= 0 && position < rowContexts.size() && rowContexts.get((int) position).getImportIndex() == importIndex) {
+            return rowContexts.get((int) position);
+        }
+        int low = 0;
+        int high = rowContexts.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleIndex = rowContexts.get(middle).getImportIndex();
+            if (middleIndex < importIndex) {
+                low = middle + 1;
+            } else if (middleIndex > importIndex) {
+                high = middle - 1;
+            } else {
+                return rowContexts.get(middle);
+            }
+        }
+        throw new NoSuchElementException();
     }
 
     public List<Problem> getValidationProblems(Class<? extends Problem> clazz) {
-        return this.getValidationProblems()
-                .stream()
-                .filter(validationProblem -> clazz.isAssignableFrom(validationProblem.getClass()) && validationProblem.getClass().isAssignableFrom(clazz))
-                .collect(Collectors.toList());
+        return getValidationProblems(clazz, false, validationProblem -> clazz.equals(validationProblem.getClass()));
     }
 
     public List<Problem> getValidationProblemsTree(Class<? extends Problem> clazz) {
-        return this.getValidationProblems()
-                .stream()
-                .filter(validationProblem -> clazz.isAssignableFrom(validationProblem.getClass()))
-                .collect(Collectors.toList());
+        return getValidationProblems(clazz, true, validationProblem -> clazz.isAssignableFrom(validationProblem.getClass()));
+    }
+
+    private List<Problem> getValidationProblems(Class<? extends Problem> clazz, boolean includeSubclasses, Predicate<Problem> filter) {
+        return Stream.concat(
+                this.problems.stream(),
+                getRowContextsWithProblems(clazz, includeSubclasses).stream().map(RowContext::getProblems).flatMap(Collection::stream)
+        ).filter(filter).collect(Collectors.toList());
+    }
+
+    //the number of problems returned by getValidationProblems(), the problems of the rows that were not retained are
+    //only counted by getProblemCounts()
+    public long getValidationProblemsNo() {
+        return this.problems.size() + (retainRows ? rowProblemNo : 0L);
+    }
+
+    long getProblemNoTotal() {
+        return this.problems.size() + rowProblemNo;
     }
 
 
     @Override
     public String toString() {
-        return String.format("ImportData{allRows=%s, validRows=%s, validationProblems=%s}", getRowNoTotal(), getRowNoValid(), getValidationProblems().size());
+        return String.format("ImportData{allRows=%s, validRows=%s, validationProblems=%s}", getRowNoTotal(), getRowNoValid(), getValidationProblemsNo());
     }
 }
@@ -0,0 +1,138 @@
+package ro.nom.vmt.spreadsheet_importer.importing;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import ro.nom.vmt.spreadsheet_importer.interfaces.Problem;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+//Timings of a single import, only collected when the importer is built with metrics
+//The times of the rows are added up from all the threads importing them so with parallel sheets or a pipeline they can be
+//bigger than the total time of the import
+public class ImportMetrics {
+
+    private final long startNanos = System.nanoTime();
+    private long totalNanos = -1L;
+
+    private final LongAdder openNanos = new LongAdder();
+    private final LongAdder headerNanos = new LongAdder();
+    private final LongAdder mapNanos = new LongAdder();
+    private final LongAdder validatorNanos = new LongAdder();
+    private final LongAdder consumerNanos = new LongAdder();
+    private final Map<String, LongAdder> columnNanos = new ConcurrentHashMap<>();
+    private final LongAdder headerCacheHits = new LongAdder();
+
+    private long rowNo = 0L;
+    private Map<Class<? extends Problem>, Long> problemCounts = Collections.emptyMap();
+
+    ImportMetrics() {
+    }
+
+    void recordOpen(long nanos) {
+        openNanos.add(nanos);
+    }
+
+    void recordHeader(long nanos) {
+        headerNanos.add(nanos);
+    }
+
+    void recordHeaderCacheHit() {
+        headerCacheHits.increment();
+    }
+
+    void recordMap(long nanos) {
+        mapNanos.add(nanos);
+    }
+
+    void recordValidators(long nanos) {
+        validatorNanos.add(nanos);
+    }
+
+    void recordConsumers(long nanos) {
+        consumerNanos.add(nanos);
+    }
+
+    //called by the generated mappers for every field they read
+    public void recordColumn(String fieldName, long nanos) {
+        columnNanos.computeIfAbsent(fieldName, name -> new LongAdder()).add(nanos);
+    }
+
+    void finish(ImportData<?> importData) {
+        this.totalNanos = System.nanoTime() - startNanos;
+        this.rowNo = importData.getRowNoTotal();
+        this.problemCounts = Collections.unmodifiableMap(importData.getProblemCounts());
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    //opening the file, for a workbook that is not streamed this includes unzipping and parsing all of it
+    public long getOpenNanos() {
+        return openNanos.sum();
+    }
+
+    //reading the header and matching the columns of all the sheets
+    public long getHeaderNanos() {
+        return headerNanos.sum();
+    }
+
+    //the sheets whose header was found in the header cache of the importer
+    public long getHeaderCacheHits() {
+        return headerCacheHits.sum();
+    }
+
+    //the generated map method, which includes reading the columns and the validate method of Validatable rows
+    public long getMapNanos() {
+        return mapNanos.sum();
+    }
+
+    public long getValidatorNanos() {
+        return validatorNanos.sum();
+    }
+
+    public long getConsumerNanos() {
+        return consumerNanos.sum();
+    }
+
+    //the time spent reading each field, the slowest fields first
+    public Map<String, Long> getColumnNanos() {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        columnNanos.entrySet()
+                .stream()
+                .sorted(Comparator.comparing((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+                .forEach(e -> sorted.put(e.getKey(), e.getValue().sum()));
+        return sorted;
+    }
+
+    public long getRowNo() {
+        return rowNo;
+    }
+
+    public Map<Class<? extends Problem>, Long> getProblemCounts() {
+        return problemCounts;
+    }
+
+    public double getRowsPerSecond() {
+        return totalNanos <= 0 ? 0 : rowNo * (double) TimeUnit.SECONDS.toNanos(1) / totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ImportMetrics{rows=%s, rowsPerSecond=%.1f, totalMs=%s, openMs=%s, headerMs=%s, mapMs=%s, validatorMs=%s, consumerMs=%s}",
+                rowNo, getRowsPerSecond(), toMillis(totalNanos), toMillis(getOpenNanos()), toMillis(getHeaderNanos()),
+                toMillis(getMapNanos()), toMillis(getValidatorNanos()), toMillis(getConsumerNanos()));
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
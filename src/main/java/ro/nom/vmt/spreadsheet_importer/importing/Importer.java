@@ -7,33 +7,84 @@ package ro.nom.vmt.spreadsheet_importer.importing;
  * This file as well as the project have an MIT license
  */
 
-import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.usermodel.XSSFWorkbookFactory;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ro.nom.vmt.spreadsheet_importer.interfaces.BaseImportMapper;
+import ro.nom.vmt.spreadsheet_importer.interfaces.Problem;
+import ro.nom.vmt.spreadsheet_importer.interfaces.ProjectableRowIterator;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetReader;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+import ro.nom.vmt.spreadsheet_importer.jfr.ImportEvents;
 import ro.nom.vmt.spreadsheet_importer.problems.ColumnNotPresentProblem;
 import ro.nom.vmt.spreadsheet_importer.problems.FileProblem;
 import ro.nom.vmt.spreadsheet_importer.problems.RowProblem;
 import ro.nom.vmt.spreadsheet_importer.problems.SheetNotPresent;
+import ro.nom.vmt.spreadsheet_importer.reading.CsvReader;
+import ro.nom.vmt.spreadsheet_importer.reading.WorkbookReader;
+import ro.nom.vmt.spreadsheet_importer.reading.XlsStreamingReader;
+import ro.nom.vmt.spreadsheet_importer.reading.XlsxStreamingReader;
+import ro.nom.vmt.spreadsheet_importer.util.ColumnPlan;
 import ro.nom.vmt.spreadsheet_importer.util.Pair;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Importer<T> {
 
     private static final Logger log = LoggerFactory.getLogger(Importer.class);
 
+    public static final String DEFAULT_CSV_SHEET_NAME = "CSV";
+    public static final int DEFAULT_PIPELINE_QUEUE_CAPACITY = 1024;
+    private static final String SPOOL_FILE_PREFIX = "spreadsheet-importer-";
+    private static final int SPOOL_BUFFER_SIZE = 64 * 1024;
+    private static final long HAND_OFF_WAIT_MILLIS = 100L;
+    //the import indexes of a sheet imported in parallel start from its position among the imported sheets shifted by this
+    private static final int SHEET_IMPORT_INDEX_SHIFT = 32;
+
     private final BaseImportMapper<T> mapper;
 
     private final Options<T> options;
 
+    //null unless the importer was built with a header cache
+    private final ColumnPlanCache columnPlanCache;
 
     private Importer(Class<? extends BaseImportMapper<T>> mapperClass, Options<T> options) {
         try {
@@ -43,6 +94,7 @@ public class Importer<T> {
             throw new InstantiationError("Could not instantiate mapper class");
         }
         this.options = options;
+        this.columnPlanCache = options.getHeaderCacheSize() > 0 ? new ColumnPlanCache(options.getHeaderCacheSize()) : null;
     }
 
     public static <T> ImporterBuilder<T> builder(Class<? extends BaseImportMapper<T>> mapperClass) {
@@ -53,84 +105,627 @@ public class Importer<T> {
         return new ImporterBuilder<>(mapperClass).build();
     }
 
-    public static boolean isRowEmpty(Row row) {
+    public static boolean isRowEmpty(SpreadsheetRow row) {
         if (row == null) {
             return true;
         }
         if (row.getLastCellNum() <= 0) {
             return true;
         }
-        for (int cellNum = row.getFirstCellNum(); cellNum < row.getLastCellNum(); cellNum++) {
-            Cell cell = row.getCell(cellNum);
-            if (cell != null && cell.getCellType() != CellType.BLANK && cell.toString() != null && !cell.toString().isEmpty()) {
+        for (int cellNum = 0; cellNum < row.getLastCellNum(); cellNum++) {
+            CellType cellType = row.getCellType(cellNum);
+            if (cellType != null && cellType != CellType.BLANK && (cellType != CellType.STRING || !row.getStringCellValue(cellNum).isEmpty())) {
                 return false;
             }
         }
         return true;
     }
 
+    Options<T> getOptions() {
+        return options;
+    }
+
     public ImportData<T> process(InputStream inputStream) {
-        ImportData<T> importData = new ImportData<>(mapper);
+        return process(() -> openReader(inputStream));
+    }
+
+    //The file is read where it is instead of being copied in memory first, xlsx files are opened with random access
+    public ImportData<T> process(File file) {
+        return process(() -> openReader(file));
+    }
+
+    public ImportData<T> process(Path path) {
+        return process(() -> openReader(path));
+    }
+
+    //Only xls files in a FileChannel are read with random access, everything else is read as a stream
+    public ImportData<T> process(SeekableByteChannel channel) {
+        return process(() -> openReader(channel));
+    }
+
+    private ImportData<T> process(ReaderSource readerSource) {
+        ImportMetrics metrics = options.isMetrics() ? new ImportMetrics() : null;
+        //with async consumers a failed batch is reported on its rows like the other consumers
+        RowBatches<T> rowBatches = options.getBatchConsumers().isEmpty() ? null : new RowBatches<>(options.getBatchConsumers(), options.getConsumerExecutor() != null);
+        ConsumerDelivery<T> consumerDelivery = options.getConsumerExecutor() == null ? null : new ConsumerDelivery<>(options.getConsumerExecutor(), options.getMaxConsumersInFlight());
+        ImportData<T> importData = new ImportData<>(mapper, options.isRetainRows(), metrics, rowBatches, consumerDelivery);
+        Object importEvent = ImportEvents.beginImport();
+        String readerType = null;
 
         log.debug("Opening the input stream");
-        try (Workbook workbook = WorkbookFactory.create(inputStream)) {
+        try (SpreadsheetReader reader = openReader(readerSource, metrics)) {
+            readerType = reader.getClass().getSimpleName();
             log.debug("Workbook was created");
 
-            int sheetsNo = workbook.getNumberOfSheets();
-            log.debug("Found {} sheets in the workbook", sheetsNo);
+            List<String> sheetNames = reader.getSheetNames();
+            log.debug("Found {} sheets in the workbook", sheetNames.size());
 
-            Set<Integer> sheetsToImport = getSheetsToImport(importData, workbook, sheetsNo);
+            //a delimited file has a single sheet and it is always imported
+            Set<Integer> sheetsToImport = options.isCsv() ? Collections.singleton(0) : getSheetsToImport(importData, sheetNames);
             if (log.isDebugEnabled()) {
                 log.debug("Importing the following sheets: {}", sheetsToImport.stream().map(String::valueOf).collect(Collectors.joining(",")));
             }
 
-            for (Integer i : sheetsToImport) {
-                Sheet sheet = workbook.getSheetAt(i);
-                log.debug("Importing the rows from the sheet at: {} ({})", i, sheet.getSheetName());
-                importData.incrNoOfSheets();
-
-                Iterator<Row> rowIterator = sheet.rowIterator();
-
-                Map<String, LinkedHashMap<String, Integer>> columnPositions = getColumnPositions(rowIterator);
-                if (log.isDebugEnabled()) {
-                    log.debug("The column positions for the sheet {} ({}) are: {}", i, sheet.getSheetName(), columnPositionsToString(columnPositions));
-                }
-
-                boolean allRequiredColumnsPresent = validateRequiredColumnsExist(importData, sheet, columnPositions);
-
-                if (allRequiredColumnsPresent) {
-                    log.debug("All required columns are present for {} ({})", i, sheet.getSheetName());
-                    //Removes not present columns
-                    columnPositions.entrySet().removeIf(e -> e.getValue().size() == 0);
+            if (options.getSheetExecutor() != null && reader.isRandomAccess() && sheetsToImport.size() > 1) {
+                processSheetsInParallel(importData, reader, sheetNames, sheetsToImport);
+            } else {
+                for (Integer i : sheetsToImport) {
+                    String sheetName = sheetNames.get(i);
+                    log.debug("Importing the rows from the sheet at: {} ({})", i, sheetName);
+                    importData.incrNoOfSheets();
 
-                    rowIterator.forEachRemaining(row -> {
-                        if (!isRowEmpty(row)) {
-                            importData.process(row, columnPositions, options);
-                        }
-                    });
+                    processSheet(importData, i, sheetName, reader.rowIterator(i));
                 }
             }
         } catch (Exception e) {
             log.warn("Error while processing the input stream for import!", e);
             importData.addValidationProblem(new FileProblem());
         }
+        if (consumerDelivery != null) {
+            consumerDelivery.awaitDeliveries().forEach(failure -> importData.addConsumerProblem(failure.p1, failure.p2));
+        }
+        if (rowBatches != null) {
+            flushBatches(importData, rowBatches);
+        }
 
+        ImportEvents.endImport(importEvent, readerType, importData.getNoOfSheets(), importData.getRowNoTotal(), importData.getRowNoValid(), importData.getProblemNoTotal());
+        if (metrics != null) {
+            metrics.finish(importData);
+            log.info("Collected the following import metrics:{}", metrics);
+        }
         log.info("Processed an import with the following data summary:{}", importData);
         return importData;
     }
 
-    private Set<Integer> getSheetsToImport(ImportData<T> importData, Workbook workbook, int sheetsNo) {
+    //The rows are read, mapped and validated only when the stream asks for them and the file is closed with the stream
+    //The sheets are imported one after the other on the calling thread; The problems of the file and of the sheets
+    //(e.g. a missing column) come as results without a row
+    public Stream<RowResult<T>> stream(InputStream inputStream) {
+        return stream(() -> openReader(inputStream));
+    }
+
+    public Stream<RowResult<T>> stream(File file) {
+        return stream(() -> openReader(file));
+    }
+
+    public Stream<RowResult<T>> stream(Path path) {
+        return stream(() -> openReader(path));
+    }
+
+    public Stream<RowResult<T>> stream(SeekableByteChannel channel) {
+        return stream(() -> openReader(channel));
+    }
+
+    private Stream<RowResult<T>> stream(ReaderSource readerSource) {
+        SpreadsheetReader reader;
+        try {
+            reader = readerSource.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("The file could not be opened for import", e);
+        }
+        RowResultIterator iterator;
+        try {
+            iterator = new RowResultIterator(reader);
+        } catch (RuntimeException e) {
+            try {
+                reader.close();
+            } catch (IOException closeException) {
+                e.addSuppressed(closeException);
+            }
+            throw e;
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    //The same rows as stream(inputStream) for reactive subscribers, the file is opened when the subscriber first asks for
+    //rows and is read on the executor only as far as the subscriber asked; Errors are given to onError
+    public Publisher<RowResult<T>> publish(InputStream inputStream, Executor executor) {
+        return new RowPublisher<>(() -> stream(inputStream), executor);
+    }
+
+    public Publisher<RowResult<T>> publish(File file, Executor executor) {
+        return new RowPublisher<>(() -> stream(file), executor);
+    }
+
+    public Publisher<RowResult<T>> publish(Path path, Executor executor) {
+        return new RowPublisher<>(() -> stream(path), executor);
+    }
+
+    public Publisher<RowResult<T>> publish(SeekableByteChannel channel, Executor executor) {
+        return new RowPublisher<>(() -> stream(channel), executor);
+    }
+
+    //the rows already given to the batch consumers are delivered even when the import stops because of an error
+    private void flushBatches(ImportData<T> importData, RowBatches<T> rowBatches) {
+        try {
+            rowBatches.flush();
+        } catch (Exception e) {
+            log.warn("Error while delivering the last batches of the import!", e);
+            importData.addValidationProblem(new FileProblem());
+        }
+        rowBatches.getFailures().forEach(failure -> importData.addConsumerProblem(failure.p1, failure.p2));
+    }
+
+    private SpreadsheetReader openReader(ReaderSource readerSource, ImportMetrics metrics) throws IOException {
+        if (metrics == null) {
+            return readerSource.open();
+        }
+        long startNanos = System.nanoTime();
+        SpreadsheetReader reader = readerSource.open();
+        metrics.recordOpen(System.nanoTime() - startNanos);
+        return reader;
+    }
+
+    //Files smaller than the threshold are read from memory, the bigger ones are copied to a temporary file first so they
+    //can be read with random access, the file is deleted when the reader is closed
+    private SpreadsheetReader openSpooledReader(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        byte[] buffer = new byte[SPOOL_BUFFER_SIZE];
+        int read = 0;
+        while (head.size() <= options.getSpoolThreshold() && (read = inputStream.read(buffer)) >= 0) {
+            head.write(buffer, 0, read);
+        }
+        if (read < 0) {
+            log.debug("The file has {} bytes and is read from memory", head.size());
+            return openWorkbookReader(new ByteArrayInputStream(head.toByteArray()));
+        }
+
+        Path spoolFile = options.getSpoolDirectory() == null
+                ? Files.createTempFile(SPOOL_FILE_PREFIX, null)
+                : Files.createTempFile(options.getSpoolDirectory(), SPOOL_FILE_PREFIX, null);
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(spoolFile)) {
+                head.writeTo(outputStream);
+                head = null;
+                while ((read = inputStream.read(buffer)) >= 0) {
+                    outputStream.write(buffer, 0, read);
+                }
+            }
+            log.debug("The file was copied to {} to be read from there", spoolFile);
+            return new SpooledReader(openReader(spoolFile.toFile()), spoolFile);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spoolFile);
+            throw e;
+        }
+    }
+
+    private SpreadsheetReader openReader(File file) throws IOException {
+        if (options.isCsv()) {
+            return openReader(new FileInputStream(file));
+        }
+        FileMagic fileMagic = FileMagic.valueOf(file);
+        if (fileMagic == FileMagic.OOXML) {
+            OPCPackage opcPackage;
+            try {
+                opcPackage = OPCPackage.open(file, PackageAccess.READ);
+            } catch (InvalidFormatException e) {
+                throw new IOException("Could not open the workbook " + file.getName(), e);
+            }
+            try {
+                if (options.isStreaming()) {
+                    log.debug("Streaming the rows of the OOXML workbook {}", file.getName());
+                    return new XlsxStreamingReader(opcPackage);
+                }
+                return new WorkbookReader(XSSFWorkbookFactory.createWorkbook(opcPackage), options.isCachedFormulaResults());
+            } catch (IOException | RuntimeException e) {
+                opcPackage.revert();
+                throw e;
+            }
+        }
+        if (fileMagic == FileMagic.OLE2) {
+            return openReader(new POIFSFileSystem(file, true));
+        }
+        //left to POI to find out what the file is or to refuse it
+        try (InputStream inputStream = new FileInputStream(file)) {
+            return openWorkbookReader(inputStream);
+        }
+    }
+
+    private SpreadsheetReader openReader(Path path) throws IOException {
+        if (path.getFileSystem() == FileSystems.getDefault()) {
+            return openReader(path.toFile());
+        }
+        //the files of other file systems (e.g. inside a zip) can only be read as a stream
+        InputStream inputStream = Files.newInputStream(path);
+        if (options.isCsv()) {
+            return openReader(inputStream);
+        }
+        //the other readers are done with the stream once they are open
+        try (InputStream workbookInputStream = inputStream) {
+            return openReader(workbookInputStream);
+        }
+    }
+
+    //POI reads an OLE2 file channel from its start, a channel that was moved is read as a stream from where it is
+    private SpreadsheetReader openReader(SeekableByteChannel channel) throws IOException {
+        if (!options.isCsv() && channel instanceof FileChannel && channel.position() == 0) {
+            FileChannel fileChannel = (FileChannel) channel;
+            //the first bytes of the file tell its type, they are read without moving the channel
+            ByteBuffer magic = ByteBuffer.allocate(8);
+            int read = 0;
+            while (magic.hasRemaining() && read >= 0) {
+                read = fileChannel.read(magic, magic.position());
+            }
+            if (FileMagic.valueOf(magic.array()) == FileMagic.OLE2) {
+                return openReader(new POIFSFileSystem(fileChannel, true));
+            }
+        }
+        return openReader(Channels.newInputStream(channel));
+    }
+
+    //the file system is closed when the reader cannot be made from it
+    private SpreadsheetReader openReader(POIFSFileSystem fileSystem) throws IOException {
+        try {
+            if (options.isStreaming()) {
+                if (XlsStreamingReader.isStreamable(fileSystem)) {
+                    log.debug("Streaming the rows of an OLE2 workbook");
+                    return new XlsStreamingReader(fileSystem);
+                }
+                log.debug("The OLE2 file does not contain a workbook stream, the whole workbook will be loaded");
+            }
+            return new WorkbookReader(WorkbookFactory.create(fileSystem), options.isCachedFormulaResults());
+        } catch (IOException | RuntimeException e) {
+            try {
+                fileSystem.close();
+            } catch (IOException closeException) {
+                e.addSuppressed(closeException);
+            }
+            throw e;
+        }
+    }
+
+    private SpreadsheetReader openReader(InputStream inputStream) throws IOException {
+        if (options.isCsv()) {
+            log.debug("Reading a delimited file using '{}' as the delimiter", options.getCsvDelimiter());
+            return new CsvReader(inputStream, options.getCsvCharset(), options.getCsvDelimiter(), options.getCsvSheetName());
+        }
+        if (options.getSpoolThreshold() >= 0) {
+            return openSpooledReader(inputStream);
+        }
+        return openWorkbookReader(inputStream);
+    }
+
+    private SpreadsheetReader openWorkbookReader(InputStream inputStream) throws IOException {
+        if (!options.isStreaming()) {
+            return WorkbookReader.open(inputStream, options.isCachedFormulaResults());
+        }
+        InputStream checkedInputStream = FileMagic.prepareToCheckMagic(inputStream);
+        FileMagic fileMagic = FileMagic.valueOf(checkedInputStream);
+        if (fileMagic == FileMagic.OOXML) {
+            log.debug("Streaming the rows of an OOXML workbook");
+            return XlsxStreamingReader.open(checkedInputStream);
+        }
+        if (fileMagic == FileMagic.OLE2) {
+            return openReader(new POIFSFileSystem(checkedInputStream));
+        }
+        log.debug("Streaming is not available for {} files, the whole workbook will be loaded", fileMagic);
+        return WorkbookReader.open(checkedInputStream, options.isCachedFormulaResults());
+    }
+
+    private void processSheet(ImportData<T> importData, int sheetIndex, String sheetName, Iterator<SpreadsheetRow> rowIterator) {
+        Object sheetEvent = ImportEvents.beginSheet();
+        long rowNoBefore = importData.getRowNoTotal();
+        ColumnPlan columnPlan = prepareSheet(importData, sheetIndex, sheetName, rowIterator);
+        if (columnPlan != null) {
+            importRows(importData, columnPlan, rowIterator);
+        }
+        ImportEvents.endSheet(sheetEvent, sheetIndex, sheetName, importData.getRowNoTotal() - rowNoBefore);
+    }
+
+    //returns null if the rows of the sheet should not be imported
+    private ColumnPlan prepareSheet(ImportData<T> importData, int sheetIndex, String sheetName, Iterator<SpreadsheetRow> rowIterator) {
+        ImportMetrics metrics = importData.getMetrics();
+        long startNanos = metrics == null ? 0L : System.nanoTime();
+        ColumnPlan columnPlan = resolveColumns(importData, sheetIndex, sheetName, rowIterator);
+        if (metrics != null) {
+            metrics.recordHeader(System.nanoTime() - startNanos);
+        }
+        if (columnPlan != null) {
+            projectColumns(rowIterator, columnPlan);
+        }
+        return columnPlan;
+    }
+
+    //the streaming readers do not decode the columns the mapper never reads
+    private static void projectColumns(Iterator<SpreadsheetRow> rowIterator, ColumnPlan columnPlan) {
+        if (rowIterator instanceof ProjectableRowIterator) {
+            ((ProjectableRowIterator) rowIterator).projectColumns(columnPlan.getUsedColumns());
+        }
+    }
+
+    private ColumnPlan resolveColumns(ImportData<T> importData, int sheetIndex, String sheetName, Iterator<SpreadsheetRow> rowIterator) {
+        SpreadsheetRow headerRow = mapper.isNamed() || mapper.hasHeader() ? rowIterator.next() : null;
+        List<String> cacheKey = columnPlanCache != null && headerRow != null ? ColumnPlanCache.getKey(headerRow) : null;
+        if (cacheKey != null) {
+            ColumnPlanCache.Entry cached = columnPlanCache.get(cacheKey);
+            if (cached != null) {
+                log.debug("The header of the sheet {} ({}) was already resolved", sheetIndex, sheetName);
+                if (importData.getMetrics() != null) {
+                    importData.getMetrics().recordHeaderCacheHit();
+                }
+                if (cached.getColumnPlan() == null) {
+                    //the problems are added again for the missing columns
+                    validateRequiredColumnsExist(importData, sheetName, cached.getColumnPositions());
+                }
+                return cached.getColumnPlan();
+            }
+        }
+
+        Map<String, LinkedHashMap<String, Integer>> columnPositions = getColumnPositions(headerRow);
+        if (log.isDebugEnabled()) {
+            log.debug("The column positions for the sheet {} ({}) are: {}", sheetIndex, sheetName, columnPositionsToString(columnPositions));
+        }
+
+        ColumnPlan columnPlan = null;
+        boolean allRequiredColumnsPresent = validateRequiredColumnsExist(importData, sheetName, columnPositions);
+        if (allRequiredColumnsPresent) {
+            log.debug("All required columns are present for {} ({})", sheetIndex, sheetName);
+            //Removes not present columns
+            columnPositions.entrySet().removeIf(e -> e.getValue().size() == 0);
+            columnPlan = mapper.getColumnPlan(columnPositions);
+        }
+        if (cacheKey != null) {
+            columnPlanCache.put(cacheKey, new ColumnPlanCache.Entry(columnPositions, columnPlan));
+        }
+        return columnPlan;
+    }
+
+    private void importRows(ImportData<T> importData, ColumnPlan columnPlan, Iterator<SpreadsheetRow> rowIterator) {
+        if (options.getPipelineExecutor() != null) {
+            importRowsPipelined(importData, columnPlan, rowIterator);
+            return;
+        }
+        rowIterator.forEachRemaining(row -> {
+            if (!isRowEmpty(row)) {
+                importData.process(row, columnPlan, options);
+            }
+        });
+    }
+
+    //The current thread reads the rows and hands them to the workers through a bounded queue, the reading waits while the queue is full
+    private void importRowsPipelined(ImportData<T> importData, ColumnPlan columnPlan, Iterator<SpreadsheetRow> rowIterator) {
+        BlockingQueue<PendingRow<T>> queue = new ArrayBlockingQueue<>(options.getPipelineQueueCapacity());
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < options.getPipelineWorkers(); i++) {
+                workers.add(CompletableFuture.runAsync(() -> mapPendingRows(queue, columnPlan, failure), options.getPipelineExecutor()));
+            }
+            while (failure.get() == null && rowIterator.hasNext()) {
+                SpreadsheetRow row = rowIterator.next();
+                if (!isRowEmpty(row)) {
+                    //streamed rows are reused by the readers so the workers get a copy
+                    handOff(queue, new PendingRow<>(importData.reserveRowContext(options), row.detach()), workers);
+                }
+            }
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            for (int i = 0; i < workers.size(); i++) {
+                handOff(queue, new PendingRow<>(null, null), workers);
+            }
+            CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).join();
+        }
+        if (failure.get() != null) {
+            //the rows left in the queue after the failure were never mapped
+            importData.discardUnsubmittedRowContexts();
+            throw failure.get();
+        }
+    }
+
+    private void mapPendingRows(BlockingQueue<PendingRow<T>> queue, ColumnPlan columnPlan, AtomicReference<RuntimeException> failure) {
+        while (true) {
+            PendingRow<T> pendingRow;
+            try {
+                pendingRow = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, new IllegalStateException("The import was interrupted", e));
+                return;
+            }
+            if (pendingRow.rowContext == null) {
+                return;
+            }
+            //after a failure the remaining rows are only taken out of the queue so the reading thread is not blocked
+            if (failure.get() == null) {
+                try {
+                    pendingRow.rowContext.map(pendingRow.row, columnPlan);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        }
+    }
+
+    private void handOff(BlockingQueue<PendingRow<T>> queue, PendingRow<T> pendingRow, List<CompletableFuture<Void>> workers) {
+        try {
+            while (!queue.offer(pendingRow, HAND_OFF_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (workers.stream().allMatch(CompletableFuture::isDone)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The import was interrupted", e);
+        }
+    }
+
+    //Each sheet is imported in its own ImportData and the results are merged in the order of the sheets
+    //The n-th imported sheet numbers its rows from (n << 32) + 1 so every row has its final import index before it is mapped
+    private void processSheetsInParallel(ImportData<T> importData, SpreadsheetReader reader, List<String> sheetNames, Set<Integer> sheetsToImport) {
+        Executor executor = options.getSheetExecutor();
+
+        List<CompletableFuture<ImportData<T>>> importedSheets = new ArrayList<>();
+        long sheetOrdinal = 0L;
+        for (Integer i : sheetsToImport) {
+            long firstImportIndex = sheetOrdinal++ << SHEET_IMPORT_INDEX_SHIFT;
+            importedSheets.add(CompletableFuture.supplyAsync(() -> {
+                ImportData<T> sheetData = new ImportData<>(mapper, options.isRetainRows(), importData.getMetrics(), importData.getRowBatches(), importData.getConsumerDelivery());
+                sheetData.setImportIndex(firstImportIndex);
+                log.debug("Importing the rows from the sheet at: {} ({})", i, sheetNames.get(i));
+                processSheet(sheetData, i, sheetNames.get(i), reader.rowIterator(i));
+                return sheetData;
+            }, executor));
+        }
+
+        for (CompletableFuture<ImportData<T>> importedSheet : importedSheets) {
+            importData.incrNoOfSheets();
+            importData.merge(importedSheet.join());
+        }
+    }
+
+    private interface ReaderSource {
+        SpreadsheetReader open() throws IOException;
+    }
+
+    //Pulls the rows of a streamed import one at a time, only the counters are kept in its ImportData
+    private class RowResultIterator implements Iterator<RowResult<T>> {
+        private final SpreadsheetReader reader;
+        private final RowBatches<T> rowBatches;
+        private final ImportData<T> importData;
+        private final List<String> sheetNames;
+        private final Iterator<Integer> sheetsToImport;
+        private final Deque<RowResult<T>> pending = new ArrayDeque<>();
+
+        private Iterator<SpreadsheetRow> rowIterator = Collections.emptyIterator();
+        private ColumnPlan columnPlan;
+        private int reportedProblems = 0;
+        private boolean closed = false;
+
+        private RowResultIterator(SpreadsheetReader reader) {
+            this.reader = reader;
+            this.rowBatches = options.getBatchConsumers().isEmpty() ? null : new RowBatches<>(options.getBatchConsumers(), false);
+            this.importData = new ImportData<>(mapper, false, null, rowBatches, null);
+            this.sheetNames = reader.getSheetNames();
+            this.sheetsToImport = (options.isCsv() ? Collections.singleton(0) : getSheetsToImport(importData, sheetNames)).iterator();
+            addNewProblems(null);
+        }
+
+        //the file is closed as soon as the reading fails, the caller may not close the stream
+        @Override
+        public boolean hasNext() {
+            try {
+                return readNext();
+            } catch (RuntimeException e) {
+                try {
+                    close();
+                } catch (RuntimeException closeException) {
+                    e.addSuppressed(closeException);
+                }
+                throw e;
+            }
+        }
+
+        private boolean readNext() {
+            while (pending.isEmpty() && !closed) {
+                if (rowIterator.hasNext()) {
+                    SpreadsheetRow row = rowIterator.next();
+                    if (!isRowEmpty(row)) {
+                        RowContext<T> rowContext = importData.newRowContext(importData, options);
+                        rowContext.map(row, columnPlan);
+                        pending.add(new RowResult<>(rowContext));
+                    }
+                } else if (sheetsToImport.hasNext()) {
+                    int sheetIndex = sheetsToImport.next();
+                    String sheetName = sheetNames.get(sheetIndex);
+                    log.debug("Streaming the rows from the sheet at: {} ({})", sheetIndex, sheetName);
+                    importData.incrNoOfSheets();
+                    Iterator<SpreadsheetRow> sheetRows = reader.rowIterator(sheetIndex);
+                    columnPlan = prepareSheet(importData, sheetIndex, sheetName, sheetRows);
+                    rowIterator = columnPlan == null ? Collections.emptyIterator() : sheetRows;
+                    addNewProblems(sheetName);
+                } else {
+                    close();
+                }
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public RowResult<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.poll();
+        }
+
+        //the rows are not retained so the problems of the import data are only the ones of the file and of the sheets
+        private void addNewProblems(String sheetName) {
+            List<Problem> problems = importData.getValidationProblems();
+            if (problems.size() > reportedProblems) {
+                pending.add(new RowResult<>(sheetName, new ArrayList<>(problems.subList(reportedProblems, problems.size()))));
+                reportedProblems = problems.size();
+            }
+        }
+
+        //the rows were already returned when the last batches are delivered, their failures come as a result without a row
+        private void addBatchFailures() {
+            List<Problem> problems = new ArrayList<>();
+            rowBatches.getFailures().forEach(failure -> {
+                importData.addConsumerProblem(failure.p1, failure.p2);
+                problems.add(failure.p2);
+            });
+            if (!problems.isEmpty()) {
+                pending.add(new RowResult<>(null, problems));
+            }
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            log.info("Streamed an import with the following data summary:{}", importData);
+            try {
+                if (rowBatches != null) {
+                    rowBatches.flush();
+                    addBatchFailures();
+                }
+            } finally {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("The input stream could not be closed", e);
+                }
+            }
+        }
+    }
+
+    private Set<Integer> getSheetsToImport(ImportData<T> importData, List<String> sheetNames) {
+        int sheetsNo = sheetNames.size();
         if (!mapper.getSheetNames().isEmpty()) {
             //we use the names
-            Set<Integer> sheetsToImport = new HashSet<>();
+            Set<Integer> sheetsToImport = new TreeSet<>();
             for (int i = 0; i < sheetsNo; i++) {
-                String sheetName = workbook.getSheetAt(i).getSheetName();
+                String sheetName = sheetNames.get(i);
                 if (sheetName != null && !sheetName.isEmpty()) {
+                    int sheetIndex = i;
                     mapper.getSheetNames()
                             .stream()
                             .filter(sheetName::matches)
                             .findFirst()
-                            .ifPresent(name -> sheetsToImport.add(workbook.getSheetIndex(sheetName)));
+                            .ifPresent(name -> sheetsToImport.add(sheetIndex));
                 }
             }
             if (sheetsToImport.isEmpty()) {
@@ -140,7 +735,7 @@ public class Importer<T> {
         } else {
             Set<Integer> sheetsToImport;
             //we use the indexes
-            sheetsToImport = mapper.getSheetPositions();
+            sheetsToImport = new TreeSet<>(mapper.getSheetPositions());
             sheetsToImport
                     .stream()
                     .filter(integer -> integer < 0 || integer > sheetsNo)
@@ -151,20 +746,21 @@ public class Importer<T> {
         }
     }
 
-    protected Map<String, LinkedHashMap<String, Integer>> getColumnPositions(Iterator<Row> rowIterator) {
+    //the header row is null when the mapper does not have a header
+    protected Map<String, LinkedHashMap<String, Integer>> getColumnPositions(SpreadsheetRow headerRow) {
         if (mapper.isNamed()) {
-            return getNamedColumnPositions(rowIterator.next(), mapper.getColumnNames());
+            return getNamedColumnPositions(headerRow);
         } else {
             if (mapper.hasHeader()) {
-                Row row = rowIterator.next();
+                SpreadsheetRow row = headerRow;
                 return mapper.getColumnPositions()
                         .entrySet()
                         .stream()
                         .collect(Collectors.toMap(Map.Entry::getKey, e -> {
                             LinkedHashMap<String, Integer> tmpMap = new LinkedHashMap<>();
-                            Cell cell = row.getCell(e.getValue());
-                            if (cell != null && !cell.getCellType().equals(CellType.BLANK)) {
-                                tmpMap.put(cell.getStringCellValue(), e.getValue());
+                            CellType cellType = row.getCellType(e.getValue());
+                            if (cellType != null && !cellType.equals(CellType.BLANK)) {
+                                tmpMap.put(row.getStringCellValue(e.getValue()), e.getValue());
                             }
                             return tmpMap;
                         }));
@@ -182,50 +778,11 @@ public class Importer<T> {
         }
     }
 
-    protected Map<String, LinkedHashMap<String, Integer>> getNamedColumnPositions(Row headerRow, Map<String, String> columnNames) {
-        Map<String, LinkedHashMap<String, Integer>> columnPosition = new HashMap<>();
-        Map<Integer, String> headerPositions = new HashMap<>();
-        for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-            Cell cell = headerRow.getCell(i);
-            if (cell != null && !cell.getCellType().equals(CellType.BLANK)) {
-                headerPositions.put(i, cell.getStringCellValue());
-            }
-
-        }
-        for (Map.Entry<String, String> columnNameEntry : columnNames.entrySet()) {
-            LinkedHashMap<String, Integer> matchingColumns =
-                    headerPositions
-                            .entrySet()
-                            .stream()
-                            .filter(integerStringEntry -> integerStringEntry.getValue().matches(columnNameEntry.getValue()))
-                            .collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey, (e1, e2) -> e2, LinkedHashMap::new));
-
-            columnPosition.put(columnNameEntry.getKey(), matchingColumns);
-
-        }
-
-        Set<String> matchedColumns =
-                columnPosition
-                        .entrySet()
-                        .stream()
-                        .flatMap(entry -> entry.getValue().entrySet().stream())
-                        .map(Map.Entry::getKey)
-                        .collect(Collectors.toSet());
-
-        LinkedHashMap<String, Integer> unmatchedColumns =
-                headerPositions
-                        .entrySet()
-                        .stream()
-                        .filter(integerStringEntry -> !matchedColumns.contains(integerStringEntry.getValue()))
-                        .collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey, (e1, e2) -> e2, LinkedHashMap::new));
-
-        columnPosition.put(null, unmatchedColumns); //TODO maybe not use null?
-
-        return columnPosition;
-
+    protected Map<String, LinkedHashMap<String, Integer>> getNamedColumnPositions(SpreadsheetRow headerRow) {
+        return mapper.getHeaderMatcher().match(headerRow);
     }
 
-    private boolean validateRequiredColumnsExist(ImportData<T> importData, Sheet sheet, Map<String, LinkedHashMap<String, Integer>> columnPositions) {
+    private boolean validateRequiredColumnsExist(ImportData<T> importData, String sheetName, Map<String, LinkedHashMap<String, Integer>> columnPositions) {
         Map<String, Pair<Integer, Integer>> columnRequiredAppearences = mapper.getColumnRequiredAppearances();
 
         long x = columnPositions
@@ -234,7 +791,7 @@ public class Importer<T> {
                 .flatMap(entry -> {
                     int presenceCounter = entry.getValue().size();
                     if (entry.getKey() != null && (columnRequiredAppearences.get(entry.getKey()).p1 > presenceCounter || columnRequiredAppearences.get(entry.getKey()).p2 < presenceCounter)) {
-                        importData.addValidationProblem(new ColumnNotPresentProblem(sheet.getSheetName(), entry.getKey()));
+                        importData.addValidationProblem(new ColumnNotPresentProblem(sheetName, entry.getKey()));
                         return Stream.of(entry);
                     }
                     return Stream.empty();
@@ -261,13 +818,78 @@ public class Importer<T> {
 
     }
 
+    private static class PendingRow<T> {
+        //null marks the end of the rows
+        private final RowContext<T> rowContext;
+        private final SpreadsheetRow row;
+
+        private PendingRow(RowContext<T> rowContext, SpreadsheetRow row) {
+            this.rowContext = rowContext;
+            this.row = row;
+        }
+    }
+
     public static class Options<T> {
-        private final List<BiFunction<T, Pair<String, Integer>, List<RowProblem>>> validators = new ArrayList<>();
-        private final List<Consumer<T>> consumersForValid = new ArrayList<>();
-        private final List<Consumer<T>> consumersForInvalid = new ArrayList<>();
-        private final List<BiConsumer<T, List<RowProblem>>> consumersForInvalidWithProblems = new ArrayList<>();
-        private final List<Consumer<T>> consumers = new ArrayList<>();
-        private final List<BiConsumer<T, List<RowProblem>>> consumersWithProblems = new ArrayList<>();
+        private final List<BiFunction<T, Pair<String, Integer>, List<RowProblem>>> validators;
+        private final List<Consumer<T>> consumersForValid;
+        private final List<Consumer<T>> consumersForInvalid;
+        private final List<BiConsumer<T, List<RowProblem>>> consumersForInvalidWithProblems;
+        private final List<Consumer<T>> consumers;
+        private final List<BiConsumer<T, List<RowProblem>>> consumersWithProblems;
+        private final List<BatchConsumer<T, ?>> batchConsumers;
+        private boolean streaming = false;
+        private boolean cachedFormulaResults = false;
+        private Character csvDelimiter = null;
+        private String csvSheetName = DEFAULT_CSV_SHEET_NAME;
+        private Charset csvCharset = StandardCharsets.UTF_8;
+        private boolean retainRows = true;
+        private boolean metrics = false;
+        private int headerCacheSize = 0;
+        private long spoolThreshold = -1L;
+        private Path spoolDirectory = null;
+        private Executor sheetExecutor = null;
+        private Executor pipelineExecutor = null;
+        private Executor consumerExecutor = null;
+        private int maxConsumersInFlight = 0;
+        private int pipelineWorkers = Runtime.getRuntime().availableProcessors();
+        private int pipelineQueueCapacity = DEFAULT_PIPELINE_QUEUE_CAPACITY;
+
+        private Options() {
+            this.validators = new ArrayList<>();
+            this.consumersForValid = new ArrayList<>();
+            this.consumersForInvalid = new ArrayList<>();
+            this.consumersForInvalidWithProblems = new ArrayList<>();
+            this.consumers = new ArrayList<>();
+            this.consumersWithProblems = new ArrayList<>();
+            this.batchConsumers = new ArrayList<>();
+        }
+
+        //the importer gets its own copy so using the builder again does not change an importer that is already in use
+        private Options(Options<T> options) {
+            this.validators = Collections.unmodifiableList(new ArrayList<>(options.validators));
+            this.consumersForValid = Collections.unmodifiableList(new ArrayList<>(options.consumersForValid));
+            this.consumersForInvalid = Collections.unmodifiableList(new ArrayList<>(options.consumersForInvalid));
+            this.consumersForInvalidWithProblems = Collections.unmodifiableList(new ArrayList<>(options.consumersForInvalidWithProblems));
+            this.consumers = Collections.unmodifiableList(new ArrayList<>(options.consumers));
+            this.consumersWithProblems = Collections.unmodifiableList(new ArrayList<>(options.consumersWithProblems));
+            this.batchConsumers = Collections.unmodifiableList(new ArrayList<>(options.batchConsumers));
+            this.streaming = options.streaming;
+            this.cachedFormulaResults = options.cachedFormulaResults;
+            this.csvDelimiter = options.csvDelimiter;
+            this.csvSheetName = options.csvSheetName;
+            this.csvCharset = options.csvCharset;
+            this.retainRows = options.retainRows;
+            this.metrics = options.metrics;
+            this.headerCacheSize = options.headerCacheSize;
+            this.spoolThreshold = options.spoolThreshold;
+            this.spoolDirectory = options.spoolDirectory;
+            this.sheetExecutor = options.sheetExecutor;
+            this.pipelineExecutor = options.pipelineExecutor;
+            this.consumerExecutor = options.consumerExecutor;
+            this.maxConsumersInFlight = options.maxConsumersInFlight;
+            this.pipelineWorkers = options.pipelineWorkers;
+            this.pipelineQueueCapacity = options.pipelineQueueCapacity;
+        }
 
         public List<BiFunction<T, Pair<String, Integer>, List<RowProblem>>> getValidators() {
             return validators;
@@ -292,6 +914,79 @@ public class Importer<T> {
         public List<BiConsumer<T, List<RowProblem>>> getConsumersWithProblems() {
             return consumersWithProblems;
         }
+
+        List<BatchConsumer<T, ?>> getBatchConsumers() {
+            return batchConsumers;
+        }
+
+        public boolean isStreaming() {
+            return streaming;
+        }
+
+        public boolean isCachedFormulaResults() {
+            return cachedFormulaResults;
+        }
+
+        public boolean isCsv() {
+            return csvDelimiter != null;
+        }
+
+        public Character getCsvDelimiter() {
+            return csvDelimiter;
+        }
+
+        public String getCsvSheetName() {
+            return csvSheetName;
+        }
+
+        public Charset getCsvCharset() {
+            return csvCharset;
+        }
+
+        public boolean isRetainRows() {
+            return retainRows;
+        }
+
+        public boolean isMetrics() {
+            return metrics;
+        }
+
+        public int getHeaderCacheSize() {
+            return headerCacheSize;
+        }
+
+        //-1 when the input streams are not spooled
+        public long getSpoolThreshold() {
+            return spoolThreshold;
+        }
+
+        public Path getSpoolDirectory() {
+            return spoolDirectory;
+        }
+
+        public Executor getSheetExecutor() {
+            return sheetExecutor;
+        }
+
+        public Executor getPipelineExecutor() {
+            return pipelineExecutor;
+        }
+
+        public Executor getConsumerExecutor() {
+            return consumerExecutor;
+        }
+
+        public int getMaxConsumersInFlight() {
+            return maxConsumersInFlight;
+        }
+
+        public int getPipelineWorkers() {
+            return pipelineWorkers;
+        }
+
+        public int getPipelineQueueCapacity() {
+            return pipelineQueueCapacity;
+        }
     }
 
     public static class ImporterBuilder<T> {
@@ -304,7 +999,11 @@ public class Importer<T> {
         }
 
         public Importer<T> build() {
-            return new Importer<>(mapperClass, options);
+            //the sheets wait for their pipeline workers, sharing the threads they could all end up waiting for each other
+            if (options.sheetExecutor != null && options.sheetExecutor == options.pipelineExecutor) {
+                throw new IllegalStateException("The sheets and the pipeline cannot share the same executor");
+            }
+            return new Importer<>(mapperClass, new Options<>(options));
         }
 
         public ImporterBuilder<T> withValidator(BiFunction<T, Pair<String, Integer>, List<RowProblem>> validator) {
@@ -337,6 +1036,126 @@ public class Importer<T> {
             return this;
         }
 
+        //the batches are delivered when they are full and once more at the end of the import with the remaining rows
+        //every row of a batch failing at the end of the import or with async consumers gets a ConsumerProblem
+        public ImporterBuilder<T> withBatchConsumer(int batchSize, Consumer<List<T>> batchConsumer) {
+            this.options.batchConsumers.add(new BatchConsumer<>(batchSize, rowContext -> true, RowContext::getMappedRow, batchConsumer));
+            return this;
+        }
+
+        public ImporterBuilder<T> withBatchConsumerForValid(int batchSize, Consumer<List<T>> batchConsumer) {
+            this.options.batchConsumers.add(new BatchConsumer<>(batchSize, RowContext::isValid, RowContext::getMappedRow, batchConsumer));
+            return this;
+        }
+
+        public ImporterBuilder<T> withBatchConsumerForInvalid(int batchSize, Consumer<List<T>> batchConsumer) {
+            this.options.batchConsumers.add(new BatchConsumer<>(batchSize, RowContext::isInvalid, RowContext::getMappedRow, batchConsumer));
+            return this;
+        }
+
+        public ImporterBuilder<T> withBatchConsumerForInvalidWithProblems(int batchSize, Consumer<List<Pair<T, List<RowProblem>>>> batchConsumer) {
+            this.options.batchConsumers.add(new BatchConsumer<>(batchSize, RowContext::isInvalid,
+                    rowContext -> new Pair<>(rowContext.getMappedRow(), rowContext.getProblems()), batchConsumer));
+            return this;
+        }
+
+        public ImporterBuilder<T> withStreaming() {
+            this.options.streaming = true;
+            return this;
+        }
+
+        public ImporterBuilder<T> withCachedFormulaResults() {
+            this.options.cachedFormulaResults = true;
+            return this;
+        }
+
+        //with false only the counters and the problems of the file are kept, the rows are only available to the consumers
+        public ImporterBuilder<T> withRetainedRows(boolean retainRows) {
+            this.options.retainRows = retainRows;
+            return this;
+        }
+
+        //the timings are attached to the ImportData, see ImportData.getMetrics()
+        public ImporterBuilder<T> withMetrics() {
+            this.options.metrics = true;
+            return this;
+        }
+
+        //remembers the columns resolved for up to maxHeaders different headers so files made from the same template
+        //skip matching their header again
+        public ImporterBuilder<T> withHeaderCache(int maxHeaders) {
+            if (maxHeaders < 1) {
+                throw new IllegalArgumentException("The header cache must hold at least one header");
+            }
+            this.options.headerCacheSize = maxHeaders;
+            return this;
+        }
+
+        //input streams bigger than thresholdBytes are copied to a temporary file and read from there with random access
+        public ImporterBuilder<T> withSpooling(long thresholdBytes) {
+            return withSpooling(thresholdBytes, null);
+        }
+
+        //the temporary files are created in the directory, the default temporary directory is used when it is null
+        public ImporterBuilder<T> withSpooling(long thresholdBytes, Path directory) {
+            if (thresholdBytes < 0) {
+                throw new IllegalArgumentException("The spooling threshold cannot be negative");
+            }
+            this.options.spoolThreshold = thresholdBytes;
+            this.options.spoolDirectory = directory;
+            return this;
+        }
+
+        //the sheets are imported at the same time when the reader can open each sheet on its own (streamed xlsx files)
+        //the n-th imported sheet (from 0) numbers its rows from (n << 32) + 1 so the indexes are known before the rows are mapped
+        public ImporterBuilder<T> withParallelSheets(Executor sheetExecutor) {
+            this.options.sheetExecutor = sheetExecutor;
+            return this;
+        }
+
+        //the rows are read on the importing thread while the mapping, the validation and the consumers run on the workers,
+        //several rows at the same time and not in the order of the file; The ImportData keeps the order of the file
+        public ImporterBuilder<T> withPipeline(Executor pipelineExecutor) {
+            this.options.pipelineExecutor = pipelineExecutor;
+            return this;
+        }
+
+        //the number of workers started for every sheet and the number of rows waiting for them before the reading waits
+        public ImporterBuilder<T> withPipeline(Executor pipelineExecutor, int workers, int queueCapacity) {
+            if (workers < 1 || queueCapacity < 1) {
+                throw new IllegalArgumentException("The pipeline needs at least one worker and a queue capacity of at least one row");
+            }
+            this.options.pipelineExecutor = pipelineExecutor;
+            this.options.pipelineWorkers = workers;
+            this.options.pipelineQueueCapacity = queueCapacity;
+            return this;
+        }
+
+        //the consumers are called on the executor and at most maxInFlight rows wait for them before the reading waits too
+        //the consumers of different rows run at the same time and in any order, process returns once every row was
+        //delivered; A row whose consumers failed gets a ConsumerProblem and is counted as invalid, for a failed batch
+        //every row of the batch gets one
+        public ImporterBuilder<T> withAsyncConsumers(Executor consumerExecutor, int maxInFlight) {
+            if (maxInFlight < 1) {
+                throw new IllegalArgumentException("At least one row must be allowed to wait for the consumers");
+            }
+            this.options.consumerExecutor = consumerExecutor;
+            this.options.maxConsumersInFlight = maxInFlight;
+            return this;
+        }
+
+        public ImporterBuilder<T> withCsv(char delimiter) {
+            this.options.csvDelimiter = delimiter;
+            return this;
+        }
+
+        public ImporterBuilder<T> withCsv(char delimiter, String sheetName, Charset charset) {
+            this.options.csvDelimiter = delimiter;
+            this.options.csvSheetName = sheetName;
+            this.options.csvCharset = charset;
+            return this;
+        }
+
 
     }
 
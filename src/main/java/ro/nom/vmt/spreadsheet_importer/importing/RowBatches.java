@@ -0,0 +1,66 @@
+package ro.nom.vmt.spreadsheet_importer.importing;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.nom.vmt.spreadsheet_importer.problems.ConsumerProblem;
+import ro.nom.vmt.spreadsheet_importer.util.Pair;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+//The rows of a single import waiting to be delivered to the batch consumers of the importer
+//Shared by the ImportData of every sheet when the sheets are imported in parallel
+class RowBatches<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(RowBatches.class);
+
+    private final List<BatchConsumer<T, ?>.Batch> batches;
+    //when false a batch failing while the rows are imported stops the import like the other consumers do
+    private final boolean reportFailures;
+    //every row of a failed batch with its problem, the batches flushed at the end of the import are always reported here
+    private final ConcurrentLinkedQueue<Pair<RowContext<T>, ConsumerProblem>> failures = new ConcurrentLinkedQueue<>();
+    private volatile boolean flushing = false;
+
+    RowBatches(List<BatchConsumer<T, ?>> batchConsumers, boolean reportFailures) {
+        this.batches = batchConsumers.stream().map(batchConsumer -> batchConsumer.newBatch(this::onFailure)).collect(Collectors.toList());
+        this.reportFailures = reportFailures;
+    }
+
+    void add(RowContext<T> rowContext) {
+        batches.forEach(batch -> batch.add(rowContext));
+    }
+
+    //delivers the rows of the batches that are not full yet, called once at the end of the import
+    //a failing batch does not keep the other ones from being delivered
+    void flush() {
+        flushing = true;
+        batches.forEach(BatchConsumer.Batch::flush);
+    }
+
+    private void onFailure(List<RowContext<T>> rowContexts, RuntimeException e) {
+        if (!reportFailures && !flushing) {
+            throw e;
+        }
+        RowContext<T> first = rowContexts.get(0);
+        log.warn("A batch consumer failed for {} rows starting with row {}@#{} associated with import index: {}", rowContexts.size(), first.getSheetName(), first.getRowNo(), first.getImportIndex(), e);
+        rowContexts.forEach(rowContext -> failures.add(new Pair<>(rowContext, new ConsumerProblem(rowContext.getSheetName(), rowContext.getRowNo(), e))));
+    }
+
+    //the rows of the failed batches with their problems, in the order of the rows
+    List<Pair<RowContext<T>, ConsumerProblem>> getFailures() {
+        return new ArrayList<>(failures)
+                .stream()
+                .sorted(Comparator.comparingLong(pair -> pair.p1.getImportIndex()))
+                .collect(Collectors.toList());
+    }
+}
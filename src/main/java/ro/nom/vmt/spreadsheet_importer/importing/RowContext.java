@@ -7,18 +7,18 @@ package ro.nom.vmt.spreadsheet_importer.importing;
  * This file as well as the project have an MIT license
  */
 
-import org.apache.poi.ss.usermodel.Row;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ro.nom.vmt.spreadsheet_importer.interfaces.BaseImportMapper;
 import ro.nom.vmt.spreadsheet_importer.interfaces.Problem;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+import ro.nom.vmt.spreadsheet_importer.jfr.ImportEvents;
 import ro.nom.vmt.spreadsheet_importer.problems.RowProblem;
+import ro.nom.vmt.spreadsheet_importer.util.ColumnPlan;
 import ro.nom.vmt.spreadsheet_importer.util.Pair;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 public class RowContext<T> {
 
@@ -31,8 +31,12 @@ public class RowContext<T> {
 
 
     private T mappedRow;
+    private String sheetName;
+    private Integer rowNo;
 
     private boolean isSubmitted = false;
+    //already added to the import data before being mapped
+    boolean isReserved = false;
     private boolean isValid = true;
 
     private List<RowProblem> problems = new ArrayList<>();
@@ -44,29 +48,55 @@ public class RowContext<T> {
         this.importIndex = importIndex;
     }
 
-    public T map(Row row, Map<String, LinkedHashMap<String, Integer>> columnPositions) {
-        log.debug("Mapping row {}@#{} associated with import index: {}", row.getSheet().getSheetName(), row.getRowNum(), importIndex);
+    public T map(SpreadsheetRow row, ColumnPlan columnPlan) {
+        log.debug("Mapping row {}@#{} associated with import index: {}", row.getSheetName(), row.getRowNum(), importIndex);
         if (this.isSubmitted) {
-            log.error("A row can no longer be submitted for {}@#{} associated with import index: {}", row.getSheet().getSheetName(), row.getRowNum(), importIndex);
+            log.error("A row can no longer be submitted for {}@#{} associated with import index: {}", row.getSheetName(), row.getRowNum(), importIndex);
             throw new UnsupportedOperationException("The row context was already submitted");
         }
-        this.mappedRow = importMapper.map(this, row, columnPositions);
+        Object rowEvent = ImportEvents.beginRow();
+        this.sheetName = row.getSheetName();
+        this.rowNo = row.getRowNum();
+        ImportMetrics metrics = importData.getMetrics();
+        long startNanos = metrics == null ? 0L : System.nanoTime();
+        this.mappedRow = importMapper.map(this, row, columnPlan);
+        if (metrics != null) {
+            long mappedNanos = System.nanoTime();
+            metrics.recordMap(mappedNanos - startNanos);
+            startNanos = mappedNanos;
+        }
 
-        log.debug("Row {}@#{} associated with import index: {} was mapped and will now be validated by the external validators if needed", row.getSheet().getSheetName(), row.getRowNum(), importIndex);
+        log.debug("Row {}@#{} associated with import index: {} was mapped and will now be validated by the external validators if needed", row.getSheetName(), row.getRowNum(), importIndex);
         this.options.getValidators().forEach(validator -> {
             try {
-                this.addValidationProblems(validator.apply(this.mappedRow, new Pair<>(row.getSheet().getSheetName(), row.getRowNum())));
+                this.addValidationProblems(validator.apply(this.mappedRow, new Pair<>(row.getSheetName(), row.getRowNum())));
             } catch (Exception ex) {
                 log.error(ex.getMessage(), ex);
-                this.addValidationProblem(new RowProblem(row.getSheet().getSheetName(), row.getRowNum()));
+                this.addValidationProblem(new RowProblem(row.getSheetName(), row.getRowNum()));
             }
         });
+        if (metrics != null) {
+            metrics.recordValidators(System.nanoTime() - startNanos);
+        }
 
         importData.submit(this);
-        log.debug("Row {}@#{} associated with import index: {} was submitted", row.getSheet().getSheetName(), row.getRowNum(), importIndex);
+        log.debug("Row {}@#{} associated with import index: {} was submitted", row.getSheetName(), row.getRowNum(), importIndex);
 
         this.isSubmitted = true;
 
+        if (importData.getConsumerDelivery() == null) {
+            consume();
+        } else {
+            importData.getConsumerDelivery().deliver(this, this::consume);
+        }
+        ImportEvents.endRow(rowEvent, sheetName, rowNo, importIndex, isValid);
+
+        return this.mappedRow;
+    }
+
+    private void consume() {
+        ImportMetrics metrics = importData.getMetrics();
+        long startNanos = metrics == null ? 0L : System.nanoTime();
         this.options.getConsumers().forEach(consumer -> consumer.accept(this.mappedRow));
         this.options.getConsumersWithProblems().forEach(consumer -> consumer.accept(this.mappedRow, problems));
         if (this.isValid) {
@@ -75,8 +105,12 @@ public class RowContext<T> {
             this.options.getConsumersForInvalid().forEach(consumer -> consumer.accept(this.mappedRow));
             this.options.getConsumersForInvalidWithProblems().forEach(consumer -> consumer.accept(this.mappedRow, this.problems));
         }
-
-        return this.mappedRow;
+        if (importData.getRowBatches() != null) {
+            importData.getRowBatches().add(this);
+        }
+        if (metrics != null) {
+            metrics.recordConsumers(System.nanoTime() - startNanos);
+        }
     }
 
     public void addValidationProblem(RowProblem problem) {
@@ -92,6 +126,12 @@ public class RowContext<T> {
         this.problems.add(problem);
     }
 
+    //the consumers run after the row is submitted, their problems are only added through the import data
+    void addConsumerProblem(RowProblem problem) {
+        this.isValid = false;
+        this.problems.add(problem);
+    }
+
     public void addValidationProblems(List<RowProblem> problems) {
         if (problems == null || problems.isEmpty()) {
             return;
@@ -105,6 +145,10 @@ public class RowContext<T> {
         this.problems.addAll(problems);
     }
 
+    boolean isSubmitted() {
+        return isSubmitted;
+    }
+
     public boolean isValid() {
         return isValid;
     }
@@ -123,6 +167,18 @@ public class RowContext<T> {
         return mappedRow;
     }
 
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    public Integer getRowNo() {
+        return rowNo;
+    }
+
+    public ImportMetrics getMetrics() {
+        return importData.getMetrics();
+    }
+
     public long getImportIndex() {
         return importIndex;
     }
@@ -0,0 +1,166 @@
+package ro.nom.vmt.spreadsheet_importer.importing;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+//Publishes the rows of a streamed import, a row is only read from the file once the subscriber asked for it
+//The rows are read on the executor and only while there is demand so no thread waits for a slow subscriber
+//The file can only be read once so the publisher accepts a single subscriber
+class RowPublisher<T> implements Publisher<RowResult<T>> {
+
+    private static final Logger log = LoggerFactory.getLogger(RowPublisher.class);
+
+    private final Supplier<Stream<RowResult<T>>> rows;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    RowPublisher(Supplier<Stream<RowResult<T>>> rows, Executor executor) {
+        this.rows = rows;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super RowResult<T>> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("The subscriber cannot be null");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("The rows of an import can only be published to a single subscriber"));
+            return;
+        }
+        RowSubscription subscription = new RowSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private class RowSubscription implements Subscription, Runnable {
+        private final Subscriber<? super RowResult<T>> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        //the number of times the rows were asked for while being delivered, only the first one starts a delivery
+        private final AtomicInteger pendingDeliveries = new AtomicInteger();
+        private volatile boolean cancelled = false;
+        private volatile Throwable invalidRequest = null;
+
+        //only used by the delivery, which never runs on two threads at the same time
+        private Stream<RowResult<T>> stream;
+        private Iterator<RowResult<T>> iterator;
+        private boolean done = false;
+
+        private RowSubscription(Subscriber<? super RowResult<T>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("The subscriber must request a positive number of rows, not " + n);
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            scheduleDelivery();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            scheduleDelivery();
+        }
+
+        private void scheduleDelivery() {
+            if (pendingDeliveries.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                deliver();
+                missed = pendingDeliveries.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void deliver() {
+            if (done) {
+                return;
+            }
+            try {
+                if (invalidRequest != null) {
+                    finish();
+                    subscriber.onError(invalidRequest);
+                    return;
+                }
+                if (iterator == null && !cancelled) {
+                    stream = rows.get();
+                    iterator = stream.iterator();
+                }
+                while (!cancelled && demand.get() > 0) {
+                    if (!iterator.hasNext()) {
+                        complete();
+                        return;
+                    }
+                    RowResult<T> row = iterator.next();
+                    demand.decrementAndGet();
+                    subscriber.onNext(row);
+                    //a subscriber asking for exactly the rows left still gets the completion, so one row is read ahead
+                    if (!cancelled && demand.get() == 0 && !iterator.hasNext()) {
+                        complete();
+                        return;
+                    }
+                }
+                if (cancelled) {
+                    log.debug("The subscriber cancelled the import");
+                    finish();
+                }
+            } catch (Exception e) {
+                log.warn("Error while publishing the rows of the import!", e);
+                finish();
+                subscriber.onError(e);
+            }
+        }
+
+        private void complete() {
+            finish();
+            subscriber.onComplete();
+        }
+
+        //closes the file, nothing is delivered after this
+        private void finish() {
+            done = true;
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (Exception e) {
+                    log.warn("Error while closing the published import!", e);
+                }
+            }
+        }
+    }
+}
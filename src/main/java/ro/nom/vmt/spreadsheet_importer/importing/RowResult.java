@@ -0,0 +1,74 @@
+package ro.nom.vmt.spreadsheet_importer.importing;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import ro.nom.vmt.spreadsheet_importer.interfaces.Problem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+//A row of a streamed import together with its problems
+//A result without a row number holds the problems of a sheet or of the whole file (e.g. a required column is missing)
+public class RowResult<T> {
+
+    private final T row;
+    private final String sheetName;
+    private final Integer rowNo;
+    private final long importIndex;
+    private final List<Problem> problems;
+
+    RowResult(RowContext<T> rowContext) {
+        this.row = rowContext.getMappedRow();
+        this.sheetName = rowContext.getSheetName();
+        this.rowNo = rowContext.getRowNo();
+        this.importIndex = rowContext.getImportIndex();
+        this.problems = Collections.unmodifiableList(new ArrayList<>(rowContext.getProblems()));
+    }
+
+    RowResult(String sheetName, List<Problem> problems) {
+        this.row = null;
+        this.sheetName = sheetName;
+        this.rowNo = null;
+        this.importIndex = 0L;
+        this.problems = Collections.unmodifiableList(problems);
+    }
+
+    public T getRow() {
+        return row;
+    }
+
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    public Integer getRowNo() {
+        return rowNo;
+    }
+
+    public long getImportIndex() {
+        return importIndex;
+    }
+
+    public List<Problem> getProblems() {
+        return problems;
+    }
+
+    public boolean isValid() {
+        return problems.isEmpty();
+    }
+
+    public boolean isInvalid() {
+        return !isValid();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RowResult{sheetName=%s, rowNo=%s, importIndex=%s, problems=%s}", sheetName, rowNo, importIndex, problems);
+    }
+}
@@ -0,0 +1,58 @@
+package ro.nom.vmt.spreadsheet_importer.importing;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetReader;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+//Reads a file the input stream was copied to and deletes the file once the reading is done
+class SpooledReader implements SpreadsheetReader {
+
+    private static final Logger log = LoggerFactory.getLogger(SpooledReader.class);
+
+    private final SpreadsheetReader reader;
+    private final Path spoolFile;
+
+    SpooledReader(SpreadsheetReader reader, Path spoolFile) {
+        this.reader = reader;
+        this.spoolFile = spoolFile;
+    }
+
+    @Override
+    public List<String> getSheetNames() {
+        return reader.getSheetNames();
+    }
+
+    @Override
+    public Iterator<SpreadsheetRow> rowIterator(int sheetIndex) {
+        return reader.rowIterator(sheetIndex);
+    }
+
+    @Override
+    public boolean isRandomAccess() {
+        return reader.isRandomAccess();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            reader.close();
+        } finally {
+            log.debug("Deleting the spooled file {}", spoolFile);
+            Files.deleteIfExists(spoolFile);
+        }
+    }
+}
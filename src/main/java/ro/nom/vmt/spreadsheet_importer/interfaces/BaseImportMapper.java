@@ -7,8 +7,9 @@ package ro.nom.vmt.spreadsheet_importer.interfaces;
  * This file as well as the project have an MIT license
  */
 
-import org.apache.poi.ss.usermodel.Row;
 import ro.nom.vmt.spreadsheet_importer.importing.RowContext;
+import ro.nom.vmt.spreadsheet_importer.util.ColumnPlan;
+import ro.nom.vmt.spreadsheet_importer.util.HeaderMatcher;
 import ro.nom.vmt.spreadsheet_importer.util.Pair;
 
 import java.util.LinkedHashMap;
@@ -17,7 +18,10 @@ import java.util.Set;
 
 public interface BaseImportMapper<T> {
 
-    T map(RowContext<T> ctx, Row row, Map<String, LinkedHashMap<String, Integer>> columnPositions);
+    T map(RowContext<T> ctx, SpreadsheetRow row, ColumnPlan columnPlan);
+
+    //called once for every sheet with the columns found for the fields
+    ColumnPlan getColumnPlan(Map<String, LinkedHashMap<String, Integer>> columnPositions);
 
     boolean hasHeader();
 
@@ -25,6 +29,11 @@ public interface BaseImportMapper<T> {
 
     Map<String, String> getColumnNames();
 
+    //the generated mappers build it once, a mapper written by hand gets a new one for every sheet
+    default HeaderMatcher getHeaderMatcher() {
+        return new HeaderMatcher(getColumnNames());
+    }
+
     Map<String, Integer> getColumnPositions();
 
     Map<String, Pair<Integer, Integer>> getColumnRequiredAppearances();
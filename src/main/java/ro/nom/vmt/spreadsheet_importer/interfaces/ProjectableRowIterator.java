@@ -0,0 +1,19 @@
+package ro.nom.vmt.spreadsheet_importer.interfaces;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import java.util.BitSet;
+import java.util.Iterator;
+
+//A row iterator that can leave out the values of the columns nobody reads, the cells outside the projection still show
+//up as present when they hold a value so an empty row stays empty and a filled row stays filled
+public interface ProjectableRowIterator extends Iterator<SpreadsheetRow> {
+
+    //applies to the rows requested after the call, null reads all the columns again
+    void projectColumns(BitSet columns);
+}
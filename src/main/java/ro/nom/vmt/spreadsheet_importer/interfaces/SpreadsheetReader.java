@@ -0,0 +1,27 @@
+package ro.nom.vmt.spreadsheet_importer.interfaces;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.List;
+
+public interface SpreadsheetReader extends Closeable {
+
+    List<String> getSheetNames();
+
+    //sheets must be requested in ascending order, a reader is not required to go back to a sheet it already passed
+    //the rows may be reused by the reader, a row is only valid until the next one is requested
+    Iterator<SpreadsheetRow> rowIterator(int sheetIndex);
+
+    //true if the sheets can be read in any order, more than once and from multiple threads at the same time
+    default boolean isRandomAccess() {
+        return false;
+    }
+
+}
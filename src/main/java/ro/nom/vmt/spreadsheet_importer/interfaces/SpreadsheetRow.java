@@ -0,0 +1,46 @@
+package ro.nom.vmt.spreadsheet_importer.interfaces;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
+
+import java.time.LocalDateTime;
+
+//The view of a row used by the generated mappers, the cells are accessed by their column index so no cell objects are needed
+public interface SpreadsheetRow {
+
+    String getSheetName();
+
+    int getSheetIndex();
+
+    int getRowNum();
+
+    //the index of the last cell plus one, 0 for rows without cells
+    int getLastCellNum();
+
+    //null means the cell is not present
+    CellType getCellType(int column);
+
+    double getNumericCellValue(int column);
+
+    LocalDateTime getLocalDateTimeCellValue(int column);
+
+    String getStringCellValue(int column);
+
+    String getCellFormula(int column);
+
+    //the value as it would be displayed by a spreadsheet application
+    String getFormattedCellValue(int column);
+
+    //null means the formula has no result
+    CellValue evaluateFormula(int column);
+
+    //a row that stays valid after the iterator moves to the next row and can be read from another thread
+    SpreadsheetRow detach();
+}
@@ -0,0 +1,27 @@
+package ro.nom.vmt.spreadsheet_importer.jfr;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import jdk.jfr.*;
+
+@Name("ro.nom.vmt.spreadsheet_importer.FormulaEvaluation")
+@Label("Spreadsheet Formula Evaluation")
+@Category("Spreadsheet Importer")
+@Description("The evaluation of the formula of a cell, or reading its cached result")
+@Threshold("1 ms")
+class FormulaEvaluationEvent extends Event {
+
+    @Label("Sheet Name")
+    String sheetName;
+
+    @Label("Row Number")
+    int rowNo;
+
+    @Label("Column")
+    int column;
+}
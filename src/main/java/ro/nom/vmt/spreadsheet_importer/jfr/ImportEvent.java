@@ -0,0 +1,32 @@
+package ro.nom.vmt.spreadsheet_importer.jfr;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import jdk.jfr.*;
+
+@Name("ro.nom.vmt.spreadsheet_importer.Import")
+@Label("Spreadsheet Import")
+@Category("Spreadsheet Importer")
+@Description("The import of a whole file, from opening it to the last row")
+class ImportEvent extends Event {
+
+    @Label("Reader")
+    String reader;
+
+    @Label("Sheets")
+    int sheets;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Valid Rows")
+    long validRows;
+
+    @Label("Problems")
+    long problems;
+}
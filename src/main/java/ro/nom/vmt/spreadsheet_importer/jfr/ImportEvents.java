@@ -0,0 +1,71 @@
+package ro.nom.vmt.spreadsheet_importer.jfr;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+//Java Flight Recorder events for the imports, recorded only while a recording has them enabled
+//JFR is not part of every Java 8 runtime (only 8u262 and newer) so the events are hidden behind plain objects and the JFR
+//classes are never loaded when the runtime does not have them
+public final class ImportEvents {
+
+    private static final boolean SUPPORTED = isSupported();
+
+    private ImportEvents() {
+    }
+
+    private static boolean isSupported() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            //registers the event types, this fails when the JVM was started with JFR turned off
+            Class.forName(JfrRecorder.class.getName());
+            return true;
+        } catch (ClassNotFoundException | LinkageError | RuntimeException e) {
+            return false;
+        }
+    }
+
+    //every begin method returns null when the event is not recorded, the matching end method then does nothing
+    public static Object beginImport() {
+        return SUPPORTED ? JfrRecorder.beginImport() : null;
+    }
+
+    public static void endImport(Object event, String reader, int sheets, long rows, long validRows, long problems) {
+        if (event != null) {
+            JfrRecorder.endImport(event, reader, sheets, rows, validRows, problems);
+        }
+    }
+
+    public static Object beginSheet() {
+        return SUPPORTED ? JfrRecorder.beginSheet() : null;
+    }
+
+    public static void endSheet(Object event, int sheetIndex, String sheetName, long rows) {
+        if (event != null) {
+            JfrRecorder.endSheet(event, sheetIndex, sheetName, rows);
+        }
+    }
+
+    public static Object beginRow() {
+        return SUPPORTED ? JfrRecorder.beginRow() : null;
+    }
+
+    public static void endRow(Object event, String sheetName, int rowNo, long importIndex, boolean valid) {
+        if (event != null) {
+            JfrRecorder.endRow(event, sheetName, rowNo, importIndex, valid);
+        }
+    }
+
+    public static Object beginFormulaEvaluation() {
+        return SUPPORTED ? JfrRecorder.beginFormulaEvaluation() : null;
+    }
+
+    public static void endFormulaEvaluation(Object event, String sheetName, int rowNo, int column) {
+        if (event != null) {
+            JfrRecorder.endFormulaEvaluation(event, sheetName, rowNo, column);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ro.nom.vmt.spreadsheet_importer.jfr;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import jdk.jfr.EventType;
+
+//The only class touching the JFR events, it is loaded by ImportEvents once it knows the JVM supports JFR
+final class JfrRecorder {
+
+    private static final EventType IMPORT = EventType.getEventType(ImportEvent.class);
+    private static final EventType SHEET = EventType.getEventType(SheetEvent.class);
+    private static final EventType SLOW_ROW = EventType.getEventType(SlowRowEvent.class);
+    private static final EventType FORMULA_EVALUATION = EventType.getEventType(FormulaEvaluationEvent.class);
+
+    private JfrRecorder() {
+    }
+
+    static Object beginImport() {
+        if (!IMPORT.isEnabled()) {
+            return null;
+        }
+        ImportEvent event = new ImportEvent();
+        event.begin();
+        return event;
+    }
+
+    static void endImport(Object importEvent, String reader, int sheets, long rows, long validRows, long problems) {
+        ImportEvent event = (ImportEvent) importEvent;
+        event.end();
+        if (event.shouldCommit()) {
+            event.reader = reader;
+            event.sheets = sheets;
+            event.rows = rows;
+            event.validRows = validRows;
+            event.problems = problems;
+            event.commit();
+        }
+    }
+
+    static Object beginSheet() {
+        if (!SHEET.isEnabled()) {
+            return null;
+        }
+        SheetEvent event = new SheetEvent();
+        event.begin();
+        return event;
+    }
+
+    static void endSheet(Object sheetEvent, int sheetIndex, String sheetName, long rows) {
+        SheetEvent event = (SheetEvent) sheetEvent;
+        event.end();
+        if (event.shouldCommit()) {
+            event.sheetIndex = sheetIndex;
+            event.sheetName = sheetName;
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
+    static Object beginRow() {
+        if (!SLOW_ROW.isEnabled()) {
+            return null;
+        }
+        SlowRowEvent event = new SlowRowEvent();
+        event.begin();
+        return event;
+    }
+
+    static void endRow(Object rowEvent, String sheetName, int rowNo, long importIndex, boolean valid) {
+        SlowRowEvent event = (SlowRowEvent) rowEvent;
+        event.end();
+        if (event.shouldCommit()) {
+            event.sheetName = sheetName;
+            event.rowNo = rowNo;
+            event.importIndex = importIndex;
+            event.valid = valid;
+            event.commit();
+        }
+    }
+
+    static Object beginFormulaEvaluation() {
+        if (!FORMULA_EVALUATION.isEnabled()) {
+            return null;
+        }
+        FormulaEvaluationEvent event = new FormulaEvaluationEvent();
+        event.begin();
+        return event;
+    }
+
+    static void endFormulaEvaluation(Object formulaEvent, String sheetName, int rowNo, int column) {
+        FormulaEvaluationEvent event = (FormulaEvaluationEvent) formulaEvent;
+        event.end();
+        if (event.shouldCommit()) {
+            event.sheetName = sheetName;
+            event.rowNo = rowNo;
+            event.column = column;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ro.nom.vmt.spreadsheet_importer.jfr;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import jdk.jfr.*;
+
+@Name("ro.nom.vmt.spreadsheet_importer.Sheet")
+@Label("Spreadsheet Sheet Import")
+@Category("Spreadsheet Importer")
+@Description("The import of the rows of a sheet, including reading its header")
+class SheetEvent extends Event {
+
+    @Label("Sheet Index")
+    int sheetIndex;
+
+    @Label("Sheet Name")
+    String sheetName;
+
+    @Label("Rows")
+    long rows;
+}
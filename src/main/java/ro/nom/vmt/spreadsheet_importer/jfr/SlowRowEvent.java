@@ -0,0 +1,31 @@
+package ro.nom.vmt.spreadsheet_importer.jfr;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import jdk.jfr.*;
+
+//only the rows taking longer than the threshold are recorded, the threshold can be changed in the recording settings
+@Name("ro.nom.vmt.spreadsheet_importer.SlowRow")
+@Label("Spreadsheet Slow Row")
+@Category("Spreadsheet Importer")
+@Description("A row whose mapping, validation and consumers took longer than the threshold")
+@Threshold("10 ms")
+class SlowRowEvent extends Event {
+
+    @Label("Sheet Name")
+    String sheetName;
+
+    @Label("Row Number")
+    int rowNo;
+
+    @Label("Import Index")
+    long importIndex;
+
+    @Label("Valid")
+    boolean valid;
+}
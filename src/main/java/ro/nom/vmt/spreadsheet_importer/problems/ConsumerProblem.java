@@ -0,0 +1,30 @@
+package ro.nom.vmt.spreadsheet_importer.problems;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+
+import ro.nom.vmt.spreadsheet_importer.util.Messages;
+
+public class ConsumerProblem extends RowProblem {
+
+    private final Exception exception;
+
+    public ConsumerProblem(String sheetName, Integer rowNo, Exception exception) {
+        super(sheetName, rowNo);
+        this.exception = exception;
+    }
+
+    public Exception getException() {
+        return exception;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Messages.CONSUMER_PROBLEM, getSheetName(), getRowNo() == null ? "------" : Integer.toString(getRowNo() + 1));
+    }
+}
@@ -0,0 +1,330 @@
+package ro.nom.vmt.spreadsheet_importer.reading;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetReader;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+//Reads delimited text files (csv, tsv) as a spreadsheet with a single sheet where every cell is a text cell
+//Quoted fields follow RFC 4180: the delimiter and line breaks are allowed inside quotes and a quote is escaped by doubling it
+public class CsvReader implements SpreadsheetReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int INITIAL_CAPACITY = 32;
+    private static final char QUOTE = '"';
+    private static final char BOM = '\uFEFF';
+
+    private final Reader reader;
+    private final char delimiter;
+    private final String sheetName;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferPosition = 0;
+    private int bufferLimit = 0;
+    private boolean endOfInput = false;
+
+    private boolean iteratorCreated = false;
+
+    public CsvReader(InputStream inputStream, Charset charset, char delimiter, String sheetName) {
+        this.reader = new InputStreamReader(inputStream, charset);
+        this.delimiter = delimiter;
+        this.sheetName = sheetName;
+    }
+
+    @Override
+    public List<String> getSheetNames() {
+        return Collections.singletonList(sheetName);
+    }
+
+    @Override
+    public Iterator<SpreadsheetRow> rowIterator(int sheetIndex) {
+        if (sheetIndex != 0) {
+            throw new IllegalArgumentException("A delimited file has a single sheet");
+        }
+        if (iteratorCreated) {
+            throw new IllegalStateException("The rows of a delimited file can only be read once");
+        }
+        iteratorCreated = true;
+        return new CsvRowIterator();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    //-1 at the end of the input
+    private int read() throws IOException {
+        if (bufferPosition == bufferLimit) {
+            if (endOfInput) {
+                return -1;
+            }
+            int read = reader.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                endOfInput = true;
+                return -1;
+            }
+            bufferPosition = 0;
+            bufferLimit = read;
+        }
+        return buffer[bufferPosition++];
+    }
+
+    private int peek() throws IOException {
+        int c = read();
+        if (c != -1) {
+            bufferPosition--;
+        }
+        return c;
+    }
+
+    private class CsvRowIterator implements Iterator<SpreadsheetRow> {
+
+        private final CsvRow row = new CsvRow();
+        private int nextRowNum = 0;
+        private boolean rowPending = false;
+        private boolean finished = false;
+
+        @Override
+        public boolean hasNext() {
+            if (!rowPending && !finished) {
+                try {
+                    rowPending = readRow();
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not read the delimited file", e);
+                }
+                finished = !rowPending;
+            }
+            return rowPending;
+        }
+
+        @Override
+        public SpreadsheetRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            rowPending = false;
+            return row;
+        }
+
+        //empty lines are skipped the same way missing rows are skipped in a spreadsheet
+        private boolean readRow() throws IOException {
+            while (true) {
+                int c = read();
+                if (c == -1) {
+                    return false;
+                }
+                if (nextRowNum == 0 && c == BOM) {
+                    c = read();
+                    if (c == -1) {
+                        return false;
+                    }
+                }
+                if (c == '\n') {
+                    nextRowNum++;
+                    continue;
+                }
+                if (c == '\r') {
+                    if (peek() == '\n') {
+                        read();
+                    }
+                    nextRowNum++;
+                    continue;
+                }
+                row.reset(nextRowNum++);
+                readFields(c);
+                return true;
+            }
+        }
+
+        private void readFields(int first) throws IOException {
+            int c = first;
+            row.startField();
+            boolean quoted = false;
+            boolean fieldStart = true;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        //an unterminated quote takes everything up to the end of the input
+                        row.endField();
+                        return;
+                    }
+                    if (c == QUOTE) {
+                        if (peek() == QUOTE) {
+                            read();
+                            row.append(QUOTE);
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        row.append((char) c);
+                    }
+                } else if (c == -1 || c == '\n') {
+                    row.endField();
+                    return;
+                } else if (c == '\r') {
+                    if (peek() == '\n') {
+                        read();
+                    }
+                    row.endField();
+                    return;
+                } else if (c == delimiter) {
+                    row.endField();
+                    row.startField();
+                    fieldStart = true;
+                    c = read();
+                    continue;
+                } else if (c == QUOTE && fieldStart) {
+                    quoted = true;
+                } else {
+                    row.append((char) c);
+                }
+                fieldStart = false;
+                c = read();
+            }
+        }
+    }
+
+    //The characters of all the fields are kept in a single buffer, the strings are only created for the cells that are read
+    private class CsvRow implements SpreadsheetRow {
+
+        private char[] chars;
+        private int length = 0;
+
+        private int[] starts;
+        private int[] ends;
+        private int fieldCount = 0;
+
+        private int rowNum;
+
+        CsvRow() {
+            this.chars = new char[BUFFER_SIZE / 16];
+            this.starts = new int[INITIAL_CAPACITY];
+            this.ends = new int[INITIAL_CAPACITY];
+        }
+
+        private CsvRow(CsvRow row) {
+            this.chars = Arrays.copyOf(row.chars, row.length);
+            this.length = row.length;
+            this.starts = Arrays.copyOf(row.starts, row.fieldCount);
+            this.ends = Arrays.copyOf(row.ends, row.fieldCount);
+            this.fieldCount = row.fieldCount;
+            this.rowNum = row.rowNum;
+        }
+
+        void reset(int rowNum) {
+            this.rowNum = rowNum;
+            this.length = 0;
+            this.fieldCount = 0;
+        }
+
+        void startField() {
+            if (fieldCount == starts.length) {
+                int newCapacity = starts.length * 2;
+                starts = Arrays.copyOf(starts, newCapacity);
+                ends = Arrays.copyOf(ends, newCapacity);
+            }
+            starts[fieldCount] = length;
+        }
+
+        void append(char c) {
+            if (length == chars.length) {
+                chars = Arrays.copyOf(chars, chars.length * 2);
+            }
+            chars[length++] = c;
+        }
+
+        void endField() {
+            ends[fieldCount] = length;
+            fieldCount++;
+        }
+
+        private boolean isPresent(int column) {
+            return column >= 0 && column < fieldCount && ends[column] > starts[column];
+        }
+
+        private String getText(int column) {
+            return new String(chars, starts[column], ends[column] - starts[column]);
+        }
+
+        @Override
+        public String getSheetName() {
+            return sheetName;
+        }
+
+        @Override
+        public int getSheetIndex() {
+            return 0;
+        }
+
+        @Override
+        public int getRowNum() {
+            return rowNum;
+        }
+
+        @Override
+        public int getLastCellNum() {
+            return fieldCount;
+        }
+
+        //empty fields are treated as missing cells
+        @Override
+        public CellType getCellType(int column) {
+            return isPresent(column) ? CellType.STRING : null;
+        }
+
+        @Override
+        public double getNumericCellValue(int column) {
+            throw new IllegalStateException("Cannot get a numeric value from a text cell");
+        }
+
+        @Override
+        public LocalDateTime getLocalDateTimeCellValue(int column) {
+            throw new IllegalStateException("Cannot get a date value from a text cell");
+        }
+
+        @Override
+        public String getStringCellValue(int column) {
+            return isPresent(column) ? getText(column) : "";
+        }
+
+        @Override
+        public String getCellFormula(int column) {
+            throw new IllegalStateException("A delimited file does not contain formulas");
+        }
+
+        @Override
+        public String getFormattedCellValue(int column) {
+            return getStringCellValue(column);
+        }
+
+        @Override
+        public CellValue evaluateFormula(int column) {
+            throw new IllegalStateException("A delimited file does not contain formulas");
+        }
+
+        @Override
+        public SpreadsheetRow detach() {
+            return new CsvRow(this);
+        }
+    }
+}
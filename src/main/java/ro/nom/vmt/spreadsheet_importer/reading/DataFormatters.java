@@ -0,0 +1,30 @@
+package ro.nom.vmt.spreadsheet_importer.reading;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+//The formatter is not thread safe so each thread reading the rows of a reader gets its own, unlike a ThreadLocal the
+//formatters are dropped when the reader is closed instead of staying with the threads of a long lived executor
+class DataFormatters implements Supplier<DataFormatter> {
+
+    private final Map<Thread, DataFormatter> dataFormatters = new ConcurrentHashMap<>();
+
+    @Override
+    public DataFormatter get() {
+        return dataFormatters.computeIfAbsent(Thread.currentThread(), thread -> new DataFormatter());
+    }
+
+    void clear() {
+        dataFormatters.clear();
+    }
+}
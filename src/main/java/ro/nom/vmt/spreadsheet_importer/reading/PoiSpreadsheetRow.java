@@ -0,0 +1,114 @@
+package ro.nom.vmt.spreadsheet_importer.reading;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.apache.poi.ss.usermodel.*;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+public class PoiSpreadsheetRow implements SpreadsheetRow {
+
+    private final Row row;
+    private final int sheetIndex;
+    private final Supplier<DataFormatter> dataFormatter;
+    //null when the cached results of the formulas are used
+    private final Supplier<FormulaEvaluator> formulaEvaluator;
+
+    public PoiSpreadsheetRow(Row row, int sheetIndex, Supplier<DataFormatter> dataFormatter, Supplier<FormulaEvaluator> formulaEvaluator) {
+        this.row = row;
+        this.sheetIndex = sheetIndex;
+        this.dataFormatter = dataFormatter;
+        this.formulaEvaluator = formulaEvaluator;
+    }
+
+    @Override
+    public String getSheetName() {
+        return row.getSheet().getSheetName();
+    }
+
+    @Override
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    @Override
+    public int getRowNum() {
+        return row.getRowNum();
+    }
+
+    @Override
+    public int getLastCellNum() {
+        return Math.max(row.getLastCellNum(), 0);
+    }
+
+    @Override
+    public CellType getCellType(int column) {
+        Cell cell = row.getCell(column);
+        return cell == null ? null : cell.getCellType();
+    }
+
+    @Override
+    public double getNumericCellValue(int column) {
+        return row.getCell(column).getNumericCellValue();
+    }
+
+    @Override
+    public LocalDateTime getLocalDateTimeCellValue(int column) {
+        return row.getCell(column).getLocalDateTimeCellValue();
+    }
+
+    @Override
+    public String getStringCellValue(int column) {
+        return row.getCell(column).getStringCellValue();
+    }
+
+    @Override
+    public String getCellFormula(int column) {
+        return row.getCell(column).getCellFormula();
+    }
+
+    @Override
+    public String getFormattedCellValue(int column) {
+        return dataFormatter.get().formatCellValue(row.getCell(column));
+    }
+
+    @Override
+    public CellValue evaluateFormula(int column) {
+        Cell cell = row.getCell(column);
+        if (formulaEvaluator != null) {
+            FormulaEvaluator evaluator = formulaEvaluator.get();
+            synchronized (evaluator) {
+                return evaluator.evaluate(cell);
+            }
+        }
+        switch (cell.getCachedFormulaResultType()) {
+            case NUMERIC:
+                return new CellValue(cell.getNumericCellValue());
+            case STRING:
+                return new CellValue(cell.getStringCellValue());
+            case BOOLEAN:
+                return CellValue.valueOf(cell.getBooleanCellValue());
+            case ERROR:
+                return CellValue.getError(cell.getErrorCellValue());
+            default:
+                return null;
+        }
+    }
+
+    public Row getRow() {
+        return row;
+    }
+
+    //every row has its own POI row so it does not change when the iterator moves on
+    @Override
+    public SpreadsheetRow detach() {
+        return this;
+    }
+}
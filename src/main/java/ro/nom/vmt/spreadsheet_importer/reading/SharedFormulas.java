@@ -0,0 +1,137 @@
+package ro.nom.vmt.spreadsheet_importer.reading;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.util.CellReference;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//The shared formulas of a sheet, only the first cell of a shared formula holds its text and the other cells get it with
+//the relative references moved by their distance from the first cell, like Excel shows them
+class SharedFormulas {
+
+    private static final Pattern CELL_REFERENCE = Pattern.compile("(\\$?)([A-Za-z]{1,3})(\\$?)([0-9]+)");
+    private static final String REF_ERROR = "#REF!";
+
+    private final Map<String, Formula> formulas = new HashMap<>();
+
+    void put(String sharedIndex, String formula, int rowNum, int column) {
+        formulas.put(sharedIndex, new Formula(formula, rowNum, column));
+    }
+
+    //null when the first cell of the shared formula was not read
+    String get(String sharedIndex, int rowNum, int column) {
+        Formula formula = formulas.get(sharedIndex);
+        if (formula == null) {
+            return null;
+        }
+        return shift(formula.text, rowNum - formula.rowNum, column - formula.column);
+    }
+
+    //moves the cell references that are not absolute, the text of the strings, of the quoted sheet names and of the
+    //structured references is left as it is
+    static String shift(String formula, int rows, int columns) {
+        if (rows == 0 && columns == 0) {
+            return formula;
+        }
+        StringBuilder shifted = new StringBuilder(formula.length() + 8);
+        int length = formula.length();
+        int i = 0;
+        while (i < length) {
+            char c = formula.charAt(i);
+            if (c == '"' || c == '\'' || c == '[') {
+                int end = skipQuoted(formula, i);
+                shifted.append(formula, i, end);
+                i = end;
+            } else if (isNamePart(c)) {
+                int end = i;
+                while (end < length && isNamePart(formula.charAt(end))) {
+                    end++;
+                }
+                String token = formula.substring(i, end);
+                Matcher matcher = CELL_REFERENCE.matcher(token);
+                //a function (LOG10) or a sheet name (A1!) can look like a reference
+                if (matcher.matches() && !isFollowedBy(formula, end, '(') && !isFollowedBy(formula, end, '!')) {
+                    shifted.append(shiftReference(matcher, rows, columns));
+                } else {
+                    shifted.append(token);
+                }
+                i = end;
+            } else {
+                shifted.append(c);
+                i++;
+            }
+        }
+        return shifted.toString();
+    }
+
+    private static String shiftReference(Matcher matcher, int rows, int columns) {
+        boolean absoluteColumn = !matcher.group(1).isEmpty();
+        boolean absoluteRow = !matcher.group(3).isEmpty();
+        int column = CellReference.convertColStringToIndex(matcher.group(2)) + (absoluteColumn ? 0 : columns);
+        int rowNum = Integer.parseInt(matcher.group(4)) - 1 + (absoluteRow ? 0 : rows);
+        if (column < 0 || column > SpreadsheetVersion.EXCEL2007.getLastColumnIndex()
+                || rowNum < 0 || rowNum > SpreadsheetVersion.EXCEL2007.getLastRowIndex()) {
+            return REF_ERROR;
+        }
+        return new CellReference(rowNum, column, absoluteRow, absoluteColumn).formatAsString();
+    }
+
+    //the index after the closing quote, a doubled quote inside the text does not close it
+    private static int skipQuoted(String formula, int start) {
+        char quote = formula.charAt(start);
+        char closing = quote == '[' ? ']' : quote;
+        int depth = 0;
+        int i = start;
+        while (i < formula.length()) {
+            char c = formula.charAt(i);
+            if (quote == '[' && c == '[') {
+                depth++;
+            } else if (c == closing && quote == '[') {
+                if (--depth == 0) {
+                    return i + 1;
+                }
+            } else if (c == closing && i > start) {
+                if (i + 1 < formula.length() && formula.charAt(i + 1) == closing) {
+                    i++;
+                } else {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        return formula.length();
+    }
+
+    private static boolean isNamePart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '$' || c == '\\';
+    }
+
+    private static boolean isFollowedBy(String formula, int index, char expected) {
+        while (index < formula.length() && formula.charAt(index) == ' ') {
+            index++;
+        }
+        return index < formula.length() && formula.charAt(index) == expected;
+    }
+
+    private static class Formula {
+        private final String text;
+        private final int rowNum;
+        private final int column;
+
+        private Formula(String text, int rowNum, int column) {
+            this.text = text;
+            this.rowNum = rowNum;
+            this.column = column;
+        }
+    }
+}
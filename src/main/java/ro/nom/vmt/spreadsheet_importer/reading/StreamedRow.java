@@ -0,0 +1,267 @@
+package ro.nom.vmt.spreadsheet_importer.reading;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.apache.poi.ss.usermodel.*;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+//Holds the values of the row currently being read by a streaming reader, the arrays are reused from one row to the next
+public class StreamedRow implements SpreadsheetRow {
+
+    private static final int INITIAL_CAPACITY = 32;
+    private static final String GENERAL_FORMAT = "General";
+
+    private final Supplier<DataFormatter> dataFormatter;
+    private final boolean date1904;
+
+    private String sheetName;
+    private int sheetIndex;
+    private int rowNum = -1;
+    private int lastCellNum = 0;
+
+    private CellType[] types = new CellType[INITIAL_CAPACITY];
+    private CellType[] resultTypes = new CellType[INITIAL_CAPACITY];
+    private double[] numbers = new double[INITIAL_CAPACITY];
+    private String[] strings = new String[INITIAL_CAPACITY];
+    private String[] formulas = new String[INITIAL_CAPACITY];
+    private short[] formatIndexes = new short[INITIAL_CAPACITY];
+    private String[] formatStrings = new String[INITIAL_CAPACITY];
+
+    public StreamedRow(Supplier<DataFormatter> dataFormatter, boolean date1904) {
+        this.dataFormatter = dataFormatter;
+        this.date1904 = date1904;
+    }
+
+    private StreamedRow(StreamedRow row) {
+        this.dataFormatter = row.dataFormatter;
+        this.date1904 = row.date1904;
+        this.sheetName = row.sheetName;
+        this.sheetIndex = row.sheetIndex;
+        this.rowNum = row.rowNum;
+        this.lastCellNum = row.lastCellNum;
+        int capacity = Math.max(lastCellNum, 1);
+        this.types = Arrays.copyOf(row.types, capacity);
+        this.resultTypes = Arrays.copyOf(row.resultTypes, capacity);
+        this.numbers = Arrays.copyOf(row.numbers, capacity);
+        this.strings = Arrays.copyOf(row.strings, capacity);
+        this.formulas = Arrays.copyOf(row.formulas, capacity);
+        this.formatIndexes = Arrays.copyOf(row.formatIndexes, capacity);
+        this.formatStrings = Arrays.copyOf(row.formatStrings, capacity);
+    }
+
+    public void setSheet(int sheetIndex, String sheetName) {
+        this.sheetIndex = sheetIndex;
+        this.sheetName = sheetName;
+    }
+
+    public void reset(int rowNum) {
+        Arrays.fill(types, 0, lastCellNum, null);
+        Arrays.fill(resultTypes, 0, lastCellNum, null);
+        Arrays.fill(strings, 0, lastCellNum, null);
+        Arrays.fill(formulas, 0, lastCellNum, null);
+        Arrays.fill(formatStrings, 0, lastCellNum, null);
+        this.rowNum = rowNum;
+        this.lastCellNum = 0;
+    }
+
+    public void setBlank(int column, short formatIndex, String formatString) {
+        set(column, CellType.BLANK, CellType.BLANK, null);
+        formatIndexes[column] = formatIndex;
+        formatStrings[column] = formatString;
+    }
+
+    public void setNumeric(int column, double value, short formatIndex, String formatString) {
+        set(column, CellType.NUMERIC, CellType.NUMERIC, null);
+        numbers[column] = value;
+        formatIndexes[column] = formatIndex;
+        formatStrings[column] = formatString;
+    }
+
+    public void setString(int column, String value) {
+        set(column, CellType.STRING, CellType.STRING, null);
+        strings[column] = value;
+    }
+
+    public void setBoolean(int column, boolean value) {
+        set(column, CellType.BOOLEAN, CellType.BOOLEAN, null);
+        numbers[column] = value ? 1 : 0;
+    }
+
+    public void setError(int column, String errorText) {
+        set(column, CellType.ERROR, CellType.ERROR, null);
+        strings[column] = errorText;
+    }
+
+    //a cell holding a value that was not read because no one asked for its column
+    public void setSkipped(int column) {
+        set(column, CellType._NONE, CellType._NONE, null);
+    }
+
+    //the value must be set before marking the cell as a formula, the value becomes the cached result of the formula
+    public void setFormula(int column, String formula) {
+        if (column >= lastCellNum || types[column] == null) {
+            set(column, CellType.FORMULA, CellType.BLANK, formula);
+        } else {
+            set(column, CellType.FORMULA, resultTypes[column], formula);
+        }
+    }
+
+    private void set(int column, CellType type, CellType resultType, String formula) {
+        ensureCapacity(column + 1);
+        types[column] = type;
+        resultTypes[column] = resultType;
+        formulas[column] = formula;
+        if (column >= lastCellNum) {
+            lastCellNum = column + 1;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= types.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, types.length * 2);
+        types = Arrays.copyOf(types, newCapacity);
+        resultTypes = Arrays.copyOf(resultTypes, newCapacity);
+        numbers = Arrays.copyOf(numbers, newCapacity);
+        strings = Arrays.copyOf(strings, newCapacity);
+        formulas = Arrays.copyOf(formulas, newCapacity);
+        formatIndexes = Arrays.copyOf(formatIndexes, newCapacity);
+        formatStrings = Arrays.copyOf(formatStrings, newCapacity);
+    }
+
+    @Override
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    @Override
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    @Override
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    @Override
+    public int getLastCellNum() {
+        return lastCellNum;
+    }
+
+    @Override
+    public CellType getCellType(int column) {
+        return column < lastCellNum ? types[column] : null;
+    }
+
+    public CellType getResultType(int column) {
+        return column < lastCellNum ? resultTypes[column] : null;
+    }
+
+    @Override
+    public double getNumericCellValue(int column) {
+        CellType resultType = getResultType(column);
+        if (CellType.BLANK.equals(resultType)) {
+            return 0;
+        }
+        if (!CellType.NUMERIC.equals(resultType)) {
+            throw new IllegalStateException("Cannot get a numeric value from a " + resultType + " cell");
+        }
+        return numbers[column];
+    }
+
+    @Override
+    public LocalDateTime getLocalDateTimeCellValue(int column) {
+        if (CellType.BLANK.equals(getCellType(column))) {
+            return null;
+        }
+        return DateUtil.getLocalDateTime(getNumericCellValue(column), date1904);
+    }
+
+    @Override
+    public String getStringCellValue(int column) {
+        CellType resultType = getResultType(column);
+        if (CellType.BLANK.equals(resultType)) {
+            return "";
+        }
+        if (!CellType.STRING.equals(resultType)) {
+            throw new IllegalStateException("Cannot get a text value from a " + resultType + " cell");
+        }
+        return strings[column];
+    }
+
+    @Override
+    public String getCellFormula(int column) {
+        if (!CellType.FORMULA.equals(getCellType(column))) {
+            throw new IllegalStateException("The cell does not contain a formula");
+        }
+        return formulas[column];
+    }
+
+    @Override
+    public String getFormattedCellValue(int column) {
+        CellType type = getCellType(column);
+        if (type == null) {
+            return "";
+        }
+        switch (type) {
+            case NUMERIC:
+                String formatString = formatStrings[column] == null ? GENERAL_FORMAT : formatStrings[column];
+                return dataFormatter.get().formatRawCellContents(numbers[column], formatIndexes[column], formatString, date1904);
+            case STRING:
+            case ERROR:
+                return strings[column];
+            case BOOLEAN:
+                return numbers[column] != 0 ? "TRUE" : "FALSE";
+            case FORMULA:
+                return formulas[column];
+            default:
+                return "";
+        }
+    }
+
+    //formulas are not evaluated, the result saved in the file the last time the formula was calculated is used instead
+    @Override
+    public CellValue evaluateFormula(int column) {
+        CellType resultType = getResultType(column);
+        if (resultType == null) {
+            return null;
+        }
+        switch (resultType) {
+            case NUMERIC:
+                return new CellValue(numbers[column]);
+            case STRING:
+                return new CellValue(strings[column]);
+            case BOOLEAN:
+                return CellValue.valueOf(numbers[column] != 0);
+            case ERROR:
+                return CellValue.getError(getErrorCode(strings[column]));
+            default:
+                return null;
+        }
+    }
+
+    private static int getErrorCode(String errorText) {
+        for (FormulaError formulaError : FormulaError.values()) {
+            if (formulaError.getString().equals(errorText)) {
+                return formulaError.getCode();
+            }
+        }
+        return FormulaError.NA.getCode();
+    }
+
+    @Override
+    public SpreadsheetRow detach() {
+        return new StreamedRow(this);
+    }
+}
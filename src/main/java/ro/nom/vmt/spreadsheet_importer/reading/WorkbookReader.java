@@ -0,0 +1,94 @@
+package ro.nom.vmt.spreadsheet_importer.reading;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetReader;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class WorkbookReader implements SpreadsheetReader {
+
+    private final Workbook workbook;
+    private final DataFormatters dataFormatters = new DataFormatters();
+    //one evaluator is used for the whole import so the values it already calculated are not calculated again, the rows
+    //evaluate their formulas one at a time since it is not thread safe
+    private FormulaEvaluator formulaEvaluator;
+    private final boolean cachedFormulaResults;
+
+    public WorkbookReader(Workbook workbook) {
+        this(workbook, false);
+    }
+
+    //with cachedFormulaResults the formulas are not evaluated, the result saved in the file is used instead
+    public WorkbookReader(Workbook workbook, boolean cachedFormulaResults) {
+        this.workbook = workbook;
+        this.cachedFormulaResults = cachedFormulaResults;
+    }
+
+    public static WorkbookReader open(InputStream inputStream) throws IOException {
+        return open(inputStream, false);
+    }
+
+    public static WorkbookReader open(InputStream inputStream, boolean cachedFormulaResults) throws IOException {
+        return new WorkbookReader(WorkbookFactory.create(inputStream), cachedFormulaResults);
+    }
+
+    @Override
+    public List<String> getSheetNames() {
+        List<String> sheetNames = new ArrayList<>();
+        for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+            sheetNames.add(workbook.getSheetAt(i).getSheetName());
+        }
+        return sheetNames;
+    }
+
+    @Override
+    public Iterator<SpreadsheetRow> rowIterator(int sheetIndex) {
+        Iterator<Row> rowIterator = workbook.getSheetAt(sheetIndex).rowIterator();
+        return new Iterator<SpreadsheetRow>() {
+            @Override
+            public boolean hasNext() {
+                return rowIterator.hasNext();
+            }
+
+            @Override
+            public SpreadsheetRow next() {
+                return new PoiSpreadsheetRow(rowIterator.next(), sheetIndex, dataFormatters, cachedFormulaResults ? null : WorkbookReader.this::getFormulaEvaluator);
+            }
+        };
+    }
+
+    private synchronized FormulaEvaluator getFormulaEvaluator() {
+        if (formulaEvaluator == null) {
+            formulaEvaluator = workbook.getCreationHelper().createFormulaEvaluator();
+        }
+        return formulaEvaluator;
+    }
+
+    public Workbook getWorkbook() {
+        return workbook;
+    }
+
+    @Override
+    public void close() throws IOException {
+        dataFormatters.clear();
+        synchronized (this) {
+            formulaEvaluator = null;
+        }
+        workbook.close();
+    }
+}
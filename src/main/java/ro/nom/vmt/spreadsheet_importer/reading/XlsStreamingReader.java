@@ -0,0 +1,407 @@
+package ro.nom.vmt.spreadsheet_importer.reading;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.apache.poi.hssf.eventusermodel.EventWorkbookBuilder;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.model.HSSFFormulaParser;
+import org.apache.poi.hssf.record.*;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.nom.vmt.spreadsheet_importer.interfaces.ProjectableRowIterator;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetReader;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+//Reads xls files one row at a time using the records of the workbook stream instead of building the whole workbook
+public class XlsStreamingReader implements SpreadsheetReader {
+
+    private static final Logger log = LoggerFactory.getLogger(XlsStreamingReader.class);
+
+    private final POIFSFileSystem fileSystem;
+    private final List<String> sheetNames = new ArrayList<>();
+    //the position of each sheet in the workbook stream, the sheets are not necessarily stored in the same order as the tabs
+    private int[] streamPositions;
+    private final DataFormatters dataFormatters = new DataFormatters();
+
+    private RecordStream recordStream;
+    private SheetRowIterator currentIterator;
+
+    public XlsStreamingReader(POIFSFileSystem fileSystem) throws IOException {
+        this.fileSystem = fileSystem;
+        this.recordStream = new RecordStream();
+        this.recordStream.readWorkbookGlobals();
+    }
+
+    public static XlsStreamingReader open(InputStream inputStream) throws IOException {
+        return new XlsStreamingReader(new POIFSFileSystem(inputStream));
+    }
+
+    //old excel formats and encrypted ooxml files are stored in OLE2 too but cannot be read as a record stream
+    public static boolean isStreamable(POIFSFileSystem fileSystem) {
+        try {
+            HSSFWorkbook.getWorkbookDirEntryName(fileSystem.getRoot());
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    //a code POI does not know is read as #N/A instead of failing the whole file
+    private static String getErrorText(int errorCode) {
+        return FormulaError.isValidCode(errorCode) ? FormulaError.forInt(errorCode).getString() : FormulaError.NA.getString();
+    }
+
+    @Override
+    public List<String> getSheetNames() {
+        return Collections.unmodifiableList(sheetNames);
+    }
+
+    @Override
+    public Iterator<SpreadsheetRow> rowIterator(int sheetIndex) {
+        if (currentIterator != null) {
+            currentIterator.finish();
+        }
+        try {
+            if (streamPositions[sheetIndex] < recordStream.sheetPosition) {
+                log.debug("The sheet {} was already passed, reading the workbook stream again", sheetNames.get(sheetIndex));
+                recordStream.close();
+                recordStream = new RecordStream();
+                recordStream.readWorkbookGlobals();
+            }
+            recordStream.skipToSheet(streamPositions[sheetIndex], sheetIndex);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read the sheet " + sheetNames.get(sheetIndex), e);
+        }
+        currentIterator = new SheetRowIterator(sheetIndex);
+        return currentIterator;
+    }
+
+    @Override
+    public void close() throws IOException {
+        dataFormatters.clear();
+        recordStream.close();
+        fileSystem.close();
+    }
+
+    //Pulls the records one by one and passes them through the listeners that keep track of the formats and of the
+    //records needed to print the formulas
+    private class RecordStream implements HSSFListener {
+
+        private final InputStream inputStream;
+        private final RecordFactoryInputStream recordFactoryInputStream;
+        private final EventWorkbookBuilder.SheetRecordCollectingListener workbookListener;
+        private final FormatTrackingHSSFListener formatListener;
+        private final List<BoundSheetRecord> boundSheetRecords = new ArrayList<>();
+
+        private HSSFWorkbook stubWorkbook;
+        private SSTRecord sstRecord;
+        private boolean date1904 = false;
+
+        //-1 while reading the workbook globals
+        private int sheetPosition = -1;
+        private int depth = 0;
+        private boolean sheetEnded = false;
+        private boolean finished = false;
+
+        private StreamedRow filling;
+        private StreamedRow ready;
+        private boolean rowReady = false;
+        private int stringResultColumn = -1;
+        private BitSet projection;
+
+        RecordStream() throws IOException {
+            this.inputStream = fileSystem.createDocumentInputStream(HSSFWorkbook.getWorkbookDirEntryName(fileSystem.getRoot()));
+            this.recordFactoryInputStream = new RecordFactoryInputStream(inputStream, false);
+            this.formatListener = new FormatTrackingHSSFListener(this);
+            this.workbookListener = new EventWorkbookBuilder.SheetRecordCollectingListener(formatListener);
+        }
+
+        private boolean nextRecord() {
+            org.apache.poi.hssf.record.Record record = recordFactoryInputStream.nextRecord();
+            if (record == null) {
+                finished = true;
+                return false;
+            }
+            workbookListener.processRecord(record);
+            return true;
+        }
+
+        void readWorkbookGlobals() throws IOException {
+            while (sheetPosition < 0 && nextRecord()) {
+                //the globals end when the first sheet starts
+            }
+            if (streamPositions == null) {
+                BoundSheetRecord[] orderedRecords = BoundSheetRecord.orderByBofPosition(boundSheetRecords);
+                streamPositions = new int[boundSheetRecords.size()];
+                for (int i = 0; i < boundSheetRecords.size(); i++) {
+                    BoundSheetRecord boundSheetRecord = boundSheetRecords.get(i);
+                    sheetNames.add(boundSheetRecord.getSheetname());
+                    streamPositions[i] = Arrays.asList(orderedRecords).indexOf(boundSheetRecord);
+                }
+            }
+            filling = new StreamedRow(dataFormatters, date1904);
+            ready = new StreamedRow(dataFormatters, date1904);
+            stubWorkbook = workbookListener.getStubHSSFWorkbook();
+        }
+
+        void skipToSheet(int position, int sheetIndex) {
+            while (!finished && sheetPosition < position) {
+                nextRecord();
+            }
+            if (sheetPosition != position) {
+                throw new IllegalStateException("The workbook stream ended before the sheet at position " + position);
+            }
+            filling.setSheet(sheetIndex, sheetNames.get(sheetIndex));
+            ready.setSheet(sheetIndex, sheetNames.get(sheetIndex));
+            projection = null;
+        }
+
+        //returns false when the sheet has no more rows
+        boolean readRow() {
+            while (!rowReady && !sheetEnded && nextRecord()) {
+                //the records are handled by the listener
+            }
+            if (!rowReady && filling.getLastCellNum() > 0) {
+                swapRows();
+            }
+            return rowReady;
+        }
+
+        StreamedRow takeRow() {
+            rowReady = false;
+            return ready;
+        }
+
+        @Override
+        public void processRecord(org.apache.poi.hssf.record.Record record) {
+            switch (record.getSid()) {
+                case BOFRecord.sid:
+                    if (depth++ == 0 && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+                        sheetPosition++;
+                        sheetEnded = false;
+                        rowReady = false;
+                        //the rows are created once the workbook globals are read
+                        if (filling != null) {
+                            filling.reset(-1);
+                        }
+                    }
+                    break;
+                case EOFRecord.sid:
+                    if (--depth == 0 && sheetPosition >= 0) {
+                        sheetEnded = true;
+                    }
+                    break;
+                case BoundSheetRecord.sid:
+                    boundSheetRecords.add((BoundSheetRecord) record);
+                    break;
+                case SSTRecord.sid:
+                    sstRecord = (SSTRecord) record;
+                    break;
+                case DateWindow1904Record.sid:
+                    date1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+                    break;
+                default:
+                    if (depth == 1 && sheetPosition >= 0) {
+                        processCellRecord(record);
+                    }
+                    break;
+            }
+        }
+
+        private void processCellRecord(org.apache.poi.hssf.record.Record record) {
+            if (record instanceof CellValueRecordInterface && !(record instanceof BlankRecord)) {
+                CellValueRecordInterface cellRecord = (CellValueRecordInterface) record;
+                if (skipCell(cellRecord.getRow(), cellRecord.getColumn())) {
+                    return;
+                }
+            }
+            switch (record.getSid()) {
+                case NumberRecord.sid:
+                    setNumeric((NumberRecord) record);
+                    break;
+                case RKRecord.sid:
+                    setNumeric(RecordFactory.convertToNumberRecord((RKRecord) record));
+                    break;
+                case MulRKRecord.sid:
+                    for (NumberRecord numberRecord : RecordFactory.convertRKRecords((MulRKRecord) record)) {
+                        if (!skipCell(numberRecord.getRow(), numberRecord.getColumn())) {
+                            setNumeric(numberRecord);
+                        }
+                    }
+                    break;
+                case BlankRecord.sid:
+                    setBlank((BlankRecord) record);
+                    break;
+                case MulBlankRecord.sid:
+                    for (BlankRecord blankRecord : RecordFactory.convertBlankRecords((MulBlankRecord) record)) {
+                        setBlank(blankRecord);
+                    }
+                    break;
+                case LabelSSTRecord.sid:
+                    LabelSSTRecord labelSSTRecord = (LabelSSTRecord) record;
+                    startCell(labelSSTRecord.getRow());
+                    filling.setString(labelSSTRecord.getColumn(), sstRecord.getString(labelSSTRecord.getSSTIndex()).getString());
+                    break;
+                case LabelRecord.sid:
+                    LabelRecord labelRecord = (LabelRecord) record;
+                    startCell(labelRecord.getRow());
+                    filling.setString(labelRecord.getColumn(), labelRecord.getValue());
+                    break;
+                case BoolErrRecord.sid:
+                    BoolErrRecord boolErrRecord = (BoolErrRecord) record;
+                    startCell(boolErrRecord.getRow());
+                    if (boolErrRecord.isBoolean()) {
+                        filling.setBoolean(boolErrRecord.getColumn(), boolErrRecord.getBooleanValue());
+                    } else {
+                        filling.setError(boolErrRecord.getColumn(), getErrorText(boolErrRecord.getErrorValue()));
+                    }
+                    break;
+                case FormulaRecord.sid:
+                    setFormula((FormulaRecord) record);
+                    break;
+                case StringRecord.sid:
+                    //the text result of the previous formula
+                    if (stringResultColumn >= 0) {
+                        String formula = filling.getCellFormula(stringResultColumn);
+                        filling.setString(stringResultColumn, ((StringRecord) record).getString());
+                        filling.setFormula(stringResultColumn, formula);
+                        stringResultColumn = -1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        //the cells outside the projection are only marked as present, their text, format and formula are not looked up
+        private boolean skipCell(int rowNum, int column) {
+            if (projection == null || projection.get(column)) {
+                return false;
+            }
+            startCell(rowNum);
+            filling.setSkipped(column);
+            stringResultColumn = -1;
+            return true;
+        }
+
+        private void setNumeric(NumberRecord record) {
+            startCell(record.getRow());
+            filling.setNumeric(record.getColumn(), record.getValue(), (short) formatListener.getFormatIndex(record), formatListener.getFormatString(record));
+        }
+
+        private void setBlank(BlankRecord record) {
+            startCell(record.getRow());
+            filling.setBlank(record.getColumn(), (short) formatListener.getFormatIndex(record), formatListener.getFormatString(record));
+        }
+
+        private void setFormula(FormulaRecord record) {
+            startCell(record.getRow());
+            int column = record.getColumn();
+            stringResultColumn = -1;
+            switch (record.getCachedResultTypeEnum()) {
+                case NUMERIC:
+                    filling.setNumeric(column, record.getValue(), (short) formatListener.getFormatIndex(record), formatListener.getFormatString(record));
+                    break;
+                case STRING:
+                    //the value comes in the next string record
+                    filling.setString(column, "");
+                    stringResultColumn = record.hasCachedResultString() ? column : -1;
+                    break;
+                case BOOLEAN:
+                    filling.setBoolean(column, record.getCachedBooleanValue());
+                    break;
+                case ERROR:
+                    filling.setError(column, getErrorText(record.getCachedErrorValue()));
+                    break;
+                default:
+                    break;
+            }
+            filling.setFormula(column, getFormulaString(record));
+        }
+
+        private String getFormulaString(FormulaRecord record) {
+            try {
+                return HSSFFormulaParser.toFormulaString(stubWorkbook, record.getParsedExpression());
+            } catch (RuntimeException e) {
+                log.debug("Could not print the formula at {}@#{}", record.getColumn(), record.getRow(), e);
+                return "";
+            }
+        }
+
+        //the cells are stored row by row so the row is complete as soon as a cell from another row shows up
+        private void startCell(int rowNum) {
+            if (filling.getRowNum() != rowNum) {
+                if (filling.getLastCellNum() > 0) {
+                    swapRows();
+                }
+                filling.reset(rowNum);
+            }
+        }
+
+        private void swapRows() {
+            StreamedRow completed = filling;
+            filling = ready;
+            ready = completed;
+            filling.reset(-1);
+            rowReady = true;
+        }
+
+        void close() throws IOException {
+            inputStream.close();
+        }
+    }
+
+    private class SheetRowIterator implements ProjectableRowIterator {
+
+        private final int sheetIndex;
+
+        private boolean rowPending = false;
+        private boolean finished = false;
+
+        SheetRowIterator(int sheetIndex) {
+            this.sheetIndex = sheetIndex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!rowPending && !finished) {
+                rowPending = recordStream.readRow();
+                finished = !rowPending;
+            }
+            return rowPending;
+        }
+
+        @Override
+        public SpreadsheetRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            rowPending = false;
+            return recordStream.takeRow();
+        }
+
+        //the first cell of the next row may already be read without the projection
+        @Override
+        public void projectColumns(BitSet columns) {
+            recordStream.projection = columns;
+        }
+
+        private void finish() {
+            finished = true;
+            rowPending = false;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package ro.nom.vmt.spreadsheet_importer.reading;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+import ro.nom.vmt.spreadsheet_importer.interfaces.ProjectableRowIterator;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetReader;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+//Reads xlsx files one row at a time without building the whole workbook in memory
+public class XlsxStreamingReader implements SpreadsheetReader {
+
+    private static final Logger log = LoggerFactory.getLogger(XlsxStreamingReader.class);
+
+    private static final XMLInputFactory xmlInputFactory = XMLHelper.newXMLInputFactory();
+
+    private final OPCPackage opcPackage;
+    private final SharedStrings sharedStrings;
+    private final short[] formatIndexes;
+    private final String[] formatStrings;
+    private final List<String> sheetNames = new ArrayList<>();
+    private final List<PackagePart> sheetParts = new ArrayList<>();
+    private final boolean date1904;
+    private final DataFormatters dataFormatters = new DataFormatters();
+
+    //every sheet is read from its own stream so several can be open at the same time
+    private final Set<SheetRowIterator> openIterators = new HashSet<>();
+
+    public XlsxStreamingReader(OPCPackage opcPackage) throws IOException {
+        this.opcPackage = opcPackage;
+        try {
+            XSSFReader xssfReader = new XSSFReader(opcPackage);
+            this.sharedStrings = new ReadOnlySharedStringsTable(opcPackage, false);
+
+            StylesTable stylesTable = xssfReader.getStylesTable();
+            this.formatIndexes = new short[stylesTable.getNumCellStyles()];
+            this.formatStrings = new String[stylesTable.getNumCellStyles()];
+            for (int i = 0; i < stylesTable.getNumCellStyles(); i++) {
+                XSSFCellStyle cellStyle = stylesTable.getStyleAt(i);
+                formatIndexes[i] = cellStyle.getDataFormat();
+                formatStrings[i] = cellStyle.getDataFormatString();
+            }
+
+            XSSFReader.SheetIterator sheetIterator = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            while (sheetIterator.hasNext()) {
+                try (InputStream ignored = sheetIterator.next()) {
+                    sheetNames.add(sheetIterator.getSheetName());
+                    sheetParts.add(sheetIterator.getSheetPart());
+                }
+            }
+
+            try (InputStream workbookData = xssfReader.getWorkbookData()) {
+                this.date1904 = isDate1904(workbookData);
+            }
+        } catch (OpenXML4JException | SAXException | XMLStreamException e) {
+            opcPackage.revert();
+            throw new IOException("Could not open the workbook for streaming", e);
+        }
+    }
+
+    public static XlsxStreamingReader open(InputStream inputStream) throws IOException {
+        try {
+            return new XlsxStreamingReader(OPCPackage.open(inputStream));
+        } catch (OpenXML4JException e) {
+            throw new IOException("Could not open the workbook for streaming", e);
+        }
+    }
+
+    private static boolean isDate1904(InputStream workbookData) throws XMLStreamException {
+        XMLStreamReader xml = xmlInputFactory.createXMLStreamReader(workbookData);
+        try {
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT) {
+                    if ("workbookPr".equals(xml.getLocalName())) {
+                        String date1904 = xml.getAttributeValue(null, "date1904");
+                        return "1".equals(date1904) || "true".equalsIgnoreCase(date1904);
+                    }
+                    if ("sheets".equals(xml.getLocalName())) {
+                        return false;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            xml.close();
+        }
+    }
+
+    @Override
+    public List<String> getSheetNames() {
+        return Collections.unmodifiableList(sheetNames);
+    }
+
+    //the package is not thread safe so the sheets are opened one at a time, the rows are then read independently
+    @Override
+    public synchronized Iterator<SpreadsheetRow> rowIterator(int sheetIndex) {
+        try {
+            SheetRowIterator iterator = new SheetRowIterator(sheetIndex, sheetParts.get(sheetIndex).getInputStream());
+            openIterators.add(iterator);
+            return iterator;
+        } catch (IOException | XMLStreamException e) {
+            throw new IllegalStateException("Could not read the sheet " + sheetNames.get(sheetIndex), e);
+        }
+    }
+
+    @Override
+    public boolean isRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        new ArrayList<>(openIterators).forEach(SheetRowIterator::close);
+        dataFormatters.clear();
+        opcPackage.revert();
+    }
+
+    private class SheetRowIterator implements ProjectableRowIterator {
+
+        private final int sheetIndex;
+        private final InputStream inputStream;
+        private final XMLStreamReader xml;
+        private final StreamedRow streamedRow = new StreamedRow(dataFormatters, date1904);
+        private final SharedFormulas sharedFormulas = new SharedFormulas();
+        private final StringBuilder text = new StringBuilder();
+
+        private BitSet projection;
+        private boolean rowPending = false;
+        private boolean finished = false;
+
+        SheetRowIterator(int sheetIndex, InputStream inputStream) throws XMLStreamException {
+            this.sheetIndex = sheetIndex;
+            this.inputStream = inputStream;
+            this.xml = xmlInputFactory.createXMLStreamReader(inputStream);
+            this.streamedRow.setSheet(sheetIndex, sheetNames.get(sheetIndex));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!rowPending && !finished) {
+                try {
+                    rowPending = readRow();
+                } catch (XMLStreamException e) {
+                    close();
+                    throw new IllegalStateException("Could not read the sheet " + sheetNames.get(sheetIndex), e);
+                }
+                if (!rowPending) {
+                    close();
+                }
+            }
+            return rowPending;
+        }
+
+        @Override
+        public SpreadsheetRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            rowPending = false;
+            return streamedRow;
+        }
+
+        @Override
+        public void projectColumns(BitSet columns) {
+            this.projection = columns;
+        }
+
+        private boolean readRow() throws XMLStreamException {
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) {
+                    String rowReference = xml.getAttributeValue(null, "r");
+                    streamedRow.reset(rowReference == null ? streamedRow.getRowNum() + 1 : Integer.parseInt(rowReference) - 1);
+                    readCells();
+                    return true;
+                }
+                if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(xml.getLocalName())) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private void readCells() throws XMLStreamException {
+            int column = -1;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT && "c".equals(xml.getLocalName())) {
+                    String cellReference = xml.getAttributeValue(null, "r");
+                    column = cellReference == null ? column + 1 : new CellReference(cellReference).getCol();
+                    if (projection == null || projection.get(column)) {
+                        readCell(column);
+                    } else {
+                        skipCell(column);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(xml.getLocalName())) {
+                    return;
+                }
+            }
+        }
+
+        private void readCell(int column) throws XMLStreamException {
+            String type = xml.getAttributeValue(null, "t");
+            String style = xml.getAttributeValue(null, "s");
+            String value = null;
+            String inlineString = null;
+            String formula = null;
+
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (xml.getLocalName()) {
+                        case "v":
+                            value = xml.getElementText();
+                            break;
+                        case "f":
+                            formula = readFormula(column);
+                            break;
+                        case "is":
+                            inlineString = readInlineString();
+                            break;
+                        default:
+                            break;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "c".equals(xml.getLocalName())) {
+                    break;
+                }
+            }
+
+            if (type == null || "n".equals(type)) {
+                int styleIndex = style == null ? 0 : Integer.parseInt(style);
+                short formatIndex = styleIndex < formatIndexes.length ? formatIndexes[styleIndex] : 0;
+                String formatString = styleIndex < formatStrings.length ? formatStrings[styleIndex] : null;
+                if (value == null || value.isEmpty()) {
+                    streamedRow.setBlank(column, formatIndex, formatString);
+                } else {
+                    streamedRow.setNumeric(column, Double.parseDouble(value), formatIndex, formatString);
+                }
+            } else {
+                switch (type) {
+                    case "s":
+                        streamedRow.setString(column, sharedStrings.getItemAt(Integer.parseInt(value)).getString());
+                        break;
+                    case "inlineStr":
+                        streamedRow.setString(column, inlineString != null ? inlineString : value);
+                        break;
+                    case "b":
+                        streamedRow.setBoolean(column, "1".equals(value) || "true".equalsIgnoreCase(value));
+                        break;
+                    case "e":
+                        streamedRow.setError(column, value);
+                        break;
+                    default:
+                        streamedRow.setString(column, value == null ? "" : value);
+                        break;
+                }
+            }
+            if (formula != null) {
+                streamedRow.setFormula(column, formula);
+            }
+        }
+
+        //only checks if the cell holds something, the shared strings are not looked up and the text is not read
+        private void skipCell(int column) throws XMLStreamException {
+            boolean present = false;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (xml.getLocalName()) {
+                        case "v":
+                            present |= xml.next() != XMLStreamConstants.END_ELEMENT;
+                            break;
+                        case "f":
+                            //the first cell of a shared formula may be outside the projection while the others are not
+                            readFormula(column);
+                            present = true;
+                            break;
+                        case "is":
+                            present = true;
+                            break;
+                        default:
+                            break;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "c".equals(xml.getLocalName())) {
+                    break;
+                }
+            }
+            if (present) {
+                streamedRow.setSkipped(column);
+            }
+        }
+
+        private String readFormula(int column) throws XMLStreamException {
+            String formulaType = xml.getAttributeValue(null, "t");
+            String sharedIndex = xml.getAttributeValue(null, "si");
+            String formula = xml.getElementText();
+            if ("shared".equals(formulaType) && sharedIndex != null) {
+                if (formula.isEmpty()) {
+                    //cells sharing a formula only reference the first one, its references are moved to this cell
+                    String sharedFormula = sharedFormulas.get(sharedIndex, streamedRow.getRowNum(), column);
+                    return sharedFormula == null ? formula : sharedFormula;
+                }
+                sharedFormulas.put(sharedIndex, formula, streamedRow.getRowNum(), column);
+            }
+            return formula;
+        }
+
+        private String readInlineString() throws XMLStreamException {
+            text.setLength(0);
+            int depth = 1;
+            boolean phonetic = false;
+            while (xml.hasNext() && depth > 0) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    if ("rPh".equals(xml.getLocalName())) {
+                        phonetic = true;
+                    } else if ("t".equals(xml.getLocalName()) && !phonetic) {
+                        text.append(xml.getElementText());
+                        depth--;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                    if ("rPh".equals(xml.getLocalName())) {
+                        phonetic = false;
+                    }
+                }
+            }
+            return text.toString();
+        }
+
+        private void close() {
+            finished = true;
+            rowPending = false;
+            synchronized (XlsxStreamingReader.this) {
+                openIterators.remove(this);
+            }
+            try {
+                xml.close();
+                inputStream.close();
+            } catch (XMLStreamException | IOException e) {
+                log.warn("Could not close the sheet {}", sheetNames.get(sheetIndex), e);
+            }
+        }
+    }
+}
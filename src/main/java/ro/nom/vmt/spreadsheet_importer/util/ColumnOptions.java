@@ -2,8 +2,10 @@ package ro.nom.vmt.spreadsheet_importer.util;/*
  *@Author Mihai V (11/06/2021)
  */
 
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
 
 public class ColumnOptions {
     private final boolean isRequired;
@@ -12,14 +14,25 @@ public class ColumnOptions {
     private final List<UnaryOperator<String>> preProcess;
     private final String matches;
     private final String columnName;
+    private final CompiledMatches compiledMatches;
 
     public ColumnOptions(boolean isRequired, boolean trim, boolean formulaAllowed, List<UnaryOperator<String>> preProcess, String matches, String columnName) {
+        this(isRequired, trim, formulaAllowed, preProcess, matches, columnName, new CompiledMatches(matches));
+    }
+
+    private ColumnOptions(boolean isRequired, boolean trim, boolean formulaAllowed, List<UnaryOperator<String>> preProcess, String matches, String columnName, CompiledMatches compiledMatches) {
         this.isRequired = isRequired;
         this.trim = trim;
         this.formulaAllowed = formulaAllowed;
         this.preProcess = preProcess;
         this.matches = matches;
         this.columnName = columnName;
+        this.compiledMatches = compiledMatches;
+    }
+
+    //the copy shares the compiled pattern and formatter so they are only compiled once for all the columns of a field
+    public ColumnOptions withColumnName(String columnName) {
+        return new ColumnOptions(isRequired, trim, formulaAllowed, preProcess, matches, columnName, compiledMatches);
     }
 
     public static OptionsBuilder builder() {
@@ -42,6 +55,16 @@ public class ColumnOptions {
         return matches;
     }
 
+    //null if there is nothing to match
+    public Pattern getPattern() {
+        return compiledMatches.getPattern();
+    }
+
+    //null if there is no format
+    public DateTimeFormatter getDateTimeFormatter() {
+        return compiledMatches.getDateTimeFormatter();
+    }
+
     public List<UnaryOperator<String>> getPreProcess() {
         return preProcess;
     }
@@ -50,6 +73,31 @@ public class ColumnOptions {
         return columnName;
     }
 
+    //The same text is a regex for texts and a format for dates so each one is only compiled when a field of that type needs it
+    private static class CompiledMatches {
+        private final String matches;
+        private volatile Pattern pattern;
+        private volatile DateTimeFormatter dateTimeFormatter;
+
+        private CompiledMatches(String matches) {
+            this.matches = matches;
+        }
+
+        private Pattern getPattern() {
+            if (pattern == null && matches != null && !matches.isEmpty()) {
+                pattern = Pattern.compile(matches);
+            }
+            return pattern;
+        }
+
+        private DateTimeFormatter getDateTimeFormatter() {
+            if (dateTimeFormatter == null && matches != null && !matches.isEmpty()) {
+                dateTimeFormatter = DateTimeFormatter.ofPattern(matches);
+            }
+            return dateTimeFormatter;
+        }
+    }
+
     public static class OptionsBuilder {
         List<UnaryOperator<String>> preProcess;
         private boolean isRequired = false;
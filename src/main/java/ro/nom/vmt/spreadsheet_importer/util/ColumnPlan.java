@@ -0,0 +1,86 @@
+package ro.nom.vmt.spreadsheet_importer.util;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//The columns of a sheet resolved once for every field of a mapper, the rows are then read using the indexes of the fields
+public class ColumnPlan {
+
+    private final Map<String, LinkedHashMap<String, Integer>> columnPositions;
+    private final int[][] columns;
+    private final String[][] columnNames;
+    private final ColumnOptions[][] columnOptions;
+    private final BitSet usedColumns = new BitSet();
+
+    //the fields and their options are in the order of the indexes used by the mapper, a null field means the unmatched columns
+    public ColumnPlan(Map<String, LinkedHashMap<String, Integer>> columnPositions, String[] fields, ColumnOptions[] fieldOptions) {
+        this.columnPositions = columnPositions;
+        this.columns = new int[fields.length][];
+        this.columnNames = new String[fields.length][];
+        this.columnOptions = new ColumnOptions[fields.length][];
+
+        for (int field = 0; field < fields.length; field++) {
+            Map<String, Integer> positions = columnPositions.getOrDefault(fields[field], new LinkedHashMap<>());
+            columns[field] = new int[positions.size()];
+            columnNames[field] = new String[positions.size()];
+            columnOptions[field] = new ColumnOptions[positions.size()];
+
+            int i = 0;
+            for (Map.Entry<String, Integer> position : positions.entrySet()) {
+                columns[field][i] = position.getValue();
+                usedColumns.set(position.getValue());
+                columnNames[field][i] = position.getKey();
+                columnOptions[field][i] = fieldOptions[field].withColumnName(position.getKey());
+                i++;
+            }
+        }
+    }
+
+    public boolean isPresent(int field) {
+        return columns[field].length > 0;
+    }
+
+    //the first column of the field
+    public int getColumn(int field) {
+        return columns[field][0];
+    }
+
+    public String getColumnName(int field) {
+        return columnNames[field][0];
+    }
+
+    public ColumnOptions getColumnOptions(int field) {
+        return columnOptions[field][0];
+    }
+
+    //all the columns of a field that can appear multiple times
+    public int[] getColumns(int field) {
+        return columns[field];
+    }
+
+    public String[] getColumnNames(int field) {
+        return columnNames[field];
+    }
+
+    public ColumnOptions[] getAllColumnOptions(int field) {
+        return columnOptions[field];
+    }
+
+    //every column read by the mapper, the unmatched columns are only part of it when the mapper asks for them
+    public BitSet getUsedColumns() {
+        return (BitSet) usedColumns.clone();
+    }
+
+    public Map<String, LinkedHashMap<String, Integer>> getColumnPositions() {
+        return Collections.unmodifiableMap(columnPositions);
+    }
+}
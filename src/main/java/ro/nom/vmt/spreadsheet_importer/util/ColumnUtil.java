@@ -7,10 +7,13 @@ package ro.nom.vmt.spreadsheet_importer.util;
  * This file as well as the project have an MIT license
  */
 
-import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ro.nom.vmt.spreadsheet_importer.importing.RowContext;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+import ro.nom.vmt.spreadsheet_importer.jfr.ImportEvents;
 import ro.nom.vmt.spreadsheet_importer.problems.*;
 
 import java.time.LocalDate;
@@ -20,15 +23,13 @@ import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
 
 
 public class ColumnUtil {
 
     private static final Logger log = LoggerFactory.getLogger(ColumnUtil.class);
 
-    private static final DataFormatter dataFormatter = new DataFormatter();
-
-
     private static final List<String> trueAliases = Arrays.asList("TRUE", "1", "T", "Y", "YES");
     private static final List<String> falseAliases = Arrays.asList("FALSE", "0", "F", "N", "NO");
 
@@ -36,13 +37,13 @@ public class ColumnUtil {
         throw new IllegalAccessError();
     }
 
-    public static <T> Byte getByte(RowContext<T> rowContext, Row row, int columnIndex, ColumnOptions options) {
+    public static <T> Byte getByte(RowContext<T> rowContext, SpreadsheetRow row, int columnIndex, ColumnOptions options) {
         Double d = getDouble(rowContext, row, columnIndex, options);
         if (d == null) {
             return null;
         } else {
             if (d > Byte.MAX_VALUE || d < Byte.MIN_VALUE) {
-                rowContext.addValidationProblem(new ValueRangeProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), d.toString()));
+                rowContext.addValidationProblem(new ValueRangeProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), d.toString()));
                 return null;
             }
 
@@ -51,13 +52,13 @@ public class ColumnUtil {
     }
 
 
-    public static <T> Short getShort(RowContext<T> rowContext, Row row, int columnIndex, ColumnOptions options) {
+    public static <T> Short getShort(RowContext<T> rowContext, SpreadsheetRow row, int columnIndex, ColumnOptions options) {
         Double d = getDouble(rowContext, row, columnIndex, options);
         if (d == null) {
             return null;
         } else {
             if (d > Short.MAX_VALUE || d < Short.MIN_VALUE) {
-                rowContext.addValidationProblem(new ValueRangeProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), d.toString()));
+                rowContext.addValidationProblem(new ValueRangeProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), d.toString()));
                 return null;
             }
             return d.shortValue();
@@ -65,13 +66,13 @@ public class ColumnUtil {
     }
 
 
-    public static <T> Integer getInteger(RowContext<T> rowContext, Row row, int columnIndex, ColumnOptions options) {
+    public static <T> Integer getInteger(RowContext<T> rowContext, SpreadsheetRow row, int columnIndex, ColumnOptions options) {
         Double d = getDouble(rowContext, row, columnIndex, options);
         if (d == null) {
             return null;
         } else {
             if (d > Integer.MAX_VALUE || d < Integer.MIN_VALUE) {
-                rowContext.addValidationProblem(new ValueRangeProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), d.toString()));
+                rowContext.addValidationProblem(new ValueRangeProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), d.toString()));
                 return null;
             }
             return d.intValue();
@@ -79,13 +80,13 @@ public class ColumnUtil {
     }
 
 
-    public static <T> Long getLong(RowContext<T> rowContext, Row row, int columnIndex, ColumnOptions options) {
+    public static <T> Long getLong(RowContext<T> rowContext, SpreadsheetRow row, int columnIndex, ColumnOptions options) {
         Double d = getDouble(rowContext, row, columnIndex, options);
         if (d == null) {
             return null;
         } else {
             if (d > Long.MAX_VALUE || d < Long.MIN_VALUE) {
-                rowContext.addValidationProblem(new ValueRangeProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), d.toString()));
+                rowContext.addValidationProblem(new ValueRangeProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), d.toString()));
                 return null;
             }
             return d.longValue();
@@ -93,13 +94,13 @@ public class ColumnUtil {
     }
 
 
-    public static <T> Float getFloat(RowContext<T> rowContext, Row row, int columnIndex, ColumnOptions options) {
+    public static <T> Float getFloat(RowContext<T> rowContext, SpreadsheetRow row, int columnIndex, ColumnOptions options) {
         Double d = getDouble(rowContext, row, columnIndex, options);
         if (d == null) {
             return null;
         } else {
             if (d > Float.MAX_VALUE || d < -Float.MAX_VALUE) {
-                rowContext.addValidationProblem(new ValueRangeProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), d.toString()));
+                rowContext.addValidationProblem(new ValueRangeProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), d.toString()));
                 return null;
             }
             return d.floatValue();
@@ -107,21 +108,21 @@ public class ColumnUtil {
     }
 
 
-    public static <T> Double getDouble(RowContext<T> rowContext, Row row, int columnIndex, ColumnOptions options) {
+    public static <T> Double getDouble(RowContext<T> rowContext, SpreadsheetRow row, int columnIndex, ColumnOptions options) {
         try {
-            Cell cell = row.getCell(columnIndex);
-            if (cell == null || cell.getCellType().equals(CellType.BLANK)) {
+            CellType cellType = row.getCellType(columnIndex);
+            if (cellType == null || cellType.equals(CellType.BLANK)) {
                 if (options.isRequired()) {
-                    rowContext.addValidationProblem(new ValueNullProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName()));
+                    rowContext.addValidationProblem(new ValueNullProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName()));
                     return null;
                 }
                 return null;
             }
-            if (cell.getCellType().equals(CellType.NUMERIC)) {
-                return cell.getNumericCellValue();
+            if (cellType.equals(CellType.NUMERIC)) {
+                return row.getNumericCellValue(columnIndex);
             }
-            if (cell.getCellType().equals(CellType.FORMULA)) {
-                CellValue cellValue = getCellValueFromFormula(cell, rowContext, row, columnIndex, options);
+            if (cellType.equals(CellType.FORMULA)) {
+                CellValue cellValue = getCellValueFromFormula(rowContext, row, columnIndex, options);
                 if (cellValue == null) {
                     return null;
                 }
@@ -140,47 +141,47 @@ public class ColumnUtil {
 
 
         } catch (Exception e) {
-            log.warn("Problem processing row: {}@#{}, column: {}@#{}", row.getSheet().getSheetName(), row.getRowNum(), options.getColumnName(), columnIndex, e);
-            rowContext.addValidationProblem(new ValueProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), null));
+            log.warn("Problem processing row: {}@#{}, column: {}@#{}", row.getSheetName(), row.getRowNum(), options.getColumnName(), columnIndex, e);
+            rowContext.addValidationProblem(new ValueProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), null));
             return null;
         }
     }
 
-    private static <T> Double getaParsedDoubleFromCell(RowContext<T> rowContext, Row row, int columnIndex, ColumnOptions options, String s) {
+    private static <T> Double getaParsedDoubleFromCell(RowContext<T> rowContext, SpreadsheetRow row, int columnIndex, ColumnOptions options, String s) {
         try {
             return Double.parseDouble(s);
         } catch (NumberFormatException nfe) {
-            rowContext.addValidationProblem(new ValueFormatProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), s));
+            rowContext.addValidationProblem(new ValueFormatProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), s));
             return null;
         }
     }
 
 
-    public static <T> String getString(RowContext<T> rowContext, Row row, int columnIndex, ColumnOptions options) {
+    public static <T> String getString(RowContext<T> rowContext, SpreadsheetRow row, int columnIndex, ColumnOptions options) {
         String string;
         try {
-            Cell cell = row.getCell(columnIndex);
-            if (cell == null) {
+            CellType cellType = row.getCellType(columnIndex);
+            if (cellType == null) {
                 if (options.isRequired()) {
-                    rowContext.addValidationProblem(new ValueNullProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName()));
+                    rowContext.addValidationProblem(new ValueNullProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName()));
                 }
                 return null;
 
             }
-            if (cell.getCellType().equals(CellType.FORMULA)) {
-                CellValue cellValue = getCellValueFromFormula(cell, rowContext, row, columnIndex, options);
+            if (cellType.equals(CellType.FORMULA)) {
+                CellValue cellValue = getCellValueFromFormula(rowContext, row, columnIndex, options);
                 if (cellValue == null) {
                     return null;
                 }
                 return cellValue.formatAsString();
             }
-            string = getStringFromCell(cell, rowContext, row, columnIndex, options);
+            string = getStringFromCell(rowContext, row, columnIndex, options);
             if (string == null) {
                 return null;
             }
-            String regex = options.getMatches();
-            if (regex != null && !regex.isEmpty() && !string.matches(regex)) {
-                rowContext.addValidationProblem(new ValueFormatRegexProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), string, regex));
+            Pattern pattern = options.getPattern();
+            if (pattern != null && !pattern.matcher(string).matches()) {
+                rowContext.addValidationProblem(new ValueFormatRegexProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), string, options.getMatches()));
                 return null;
 
             }
@@ -189,8 +190,8 @@ public class ColumnUtil {
 
 
         } catch (Exception e) {
-            log.warn("Problem processing row: {}@#{}, column: {}@#{}", row.getSheet().getSheetName(), row.getRowNum(), options.getColumnName(), columnIndex, e);
-            rowContext.addValidationProblem(new ValueProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), null));
+            log.warn("Problem processing row: {}@#{}, column: {}@#{}", row.getSheetName(), row.getRowNum(), options.getColumnName(), columnIndex, e);
+            rowContext.addValidationProblem(new ValueProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), null));
             return null;
         }
 
@@ -198,7 +199,7 @@ public class ColumnUtil {
     }
 
 
-    public static <T> Boolean getBoolean(RowContext<T> rowContext, Row row, int columnIndex, ColumnOptions options) {
+    public static <T> Boolean getBoolean(RowContext<T> rowContext, SpreadsheetRow row, int columnIndex, ColumnOptions options) {
         String string = getString(rowContext, row, columnIndex, options);
 
         if (string != null) {
@@ -208,65 +209,65 @@ public class ColumnUtil {
             if (falseAliases.contains(string.toUpperCase())) {
                 return Boolean.FALSE;
             }
-            rowContext.addValidationProblem(new ValueFormatProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), string));
+            rowContext.addValidationProblem(new ValueFormatProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), string));
         }
 
         return null;
 
     }
 
-    public static <T> LocalDateTime getLocalDateTime(RowContext<T> rowContext, Row row, int columnIndex, ColumnOptions options) {
+    public static <T> LocalDateTime getLocalDateTime(RowContext<T> rowContext, SpreadsheetRow row, int columnIndex, ColumnOptions options) {
         try {
-            Cell cell = row.getCell(columnIndex);
-            if (cell == null) {
+            CellType cellType = row.getCellType(columnIndex);
+            if (cellType == null) {
                 if (options.isRequired()) {
-                    rowContext.addValidationProblem(new ValueNullProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName()));
+                    rowContext.addValidationProblem(new ValueNullProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName()));
                 }
                 return null;
             }
-            if (cell.getCellType().equals(CellType.NUMERIC)) {
-                return cell.getLocalDateTimeCellValue();
+            if (cellType.equals(CellType.NUMERIC)) {
+                return row.getLocalDateTimeCellValue(columnIndex);
             }
-            if (cell.getCellType().equals(CellType.FORMULA)) {
-                return getLocalDateTimeIfFormula(cell, rowContext, row, columnIndex, options);
+            if (cellType.equals(CellType.FORMULA)) {
+                return getLocalDateTimeIfFormula(rowContext, row, columnIndex, options);
             }
 
 
-            String matches = options.getMatches();
-            String string = getStringFromCell(cell, rowContext, row, columnIndex, options);
+            DateTimeFormatter formatter = options.getDateTimeFormatter();
+            String string = getStringFromCell(rowContext, row, columnIndex, options);
             if (string == null) {
                 return null;
             }
-            if (matches != null && !matches.isEmpty()) {
-                return LocalDateTime.parse(string, DateTimeFormatter.ofPattern(matches));
+            if (formatter != null) {
+                return LocalDateTime.parse(string, formatter);
             } else {
                 return LocalDateTime.parse(string);
             }
 
 
         } catch (Exception ex) {
-            log.warn("Problem processing row: {}@#{}, column: {}@#{}", row.getSheet().getSheetName(), row.getRowNum(), options.getColumnName(), columnIndex, ex);
-            rowContext.addValidationProblem(new ValueProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), null));
+            log.warn("Problem processing row: {}@#{}, column: {}@#{}", row.getSheetName(), row.getRowNum(), options.getColumnName(), columnIndex, ex);
+            rowContext.addValidationProblem(new ValueProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), null));
             return null;
         }
     }
 
-    public static <T> LocalDate getLocalDate(RowContext<T> rowContext, Row row, int columnIndex, ColumnOptions options) {
+    public static <T> LocalDate getLocalDate(RowContext<T> rowContext, SpreadsheetRow row, int columnIndex, ColumnOptions options) {
         try {
-            Cell cell = row.getCell(columnIndex);
+            CellType cellType = row.getCellType(columnIndex);
 
-            if (cell == null) {
+            if (cellType == null) {
                 if (options.isRequired()) {
-                    rowContext.addValidationProblem(new ValueNullProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName()));
+                    rowContext.addValidationProblem(new ValueNullProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName()));
                 }
                 return null;
             }
-            if (cell.getCellType().equals(CellType.NUMERIC)) {
-                return cell.getLocalDateTimeCellValue().toLocalDate();
+            if (cellType.equals(CellType.NUMERIC)) {
+                return row.getLocalDateTimeCellValue(columnIndex).toLocalDate();
             }
 
-            if (cell.getCellType().equals(CellType.FORMULA)) {
-                LocalDateTime localDateTime = getLocalDateTimeIfFormula(cell, rowContext, row, columnIndex, options);
+            if (cellType.equals(CellType.FORMULA)) {
+                LocalDateTime localDateTime = getLocalDateTimeIfFormula(rowContext, row, columnIndex, options);
                 if (localDateTime == null) {
                     return null;
                 } else {
@@ -275,41 +276,41 @@ public class ColumnUtil {
 
             }
 
-            String matches = options.getMatches();
-            String string = getStringFromCell(cell, rowContext, row, columnIndex, options);
+            DateTimeFormatter formatter = options.getDateTimeFormatter();
+            String string = getStringFromCell(rowContext, row, columnIndex, options);
             if (string == null) {
                 return null;
             }
-            if (matches != null && !matches.isEmpty()) {
-                return LocalDate.parse(string, DateTimeFormatter.ofPattern(matches));
+            if (formatter != null) {
+                return LocalDate.parse(string, formatter);
             } else {
                 return LocalDate.parse(string);
             }
 
 
         } catch (Exception ex) {
-            log.warn("Problem processing row: {}@#{}, column: {}@#{}", row.getSheet().getSheetName(), row.getRowNum(), options.getColumnName(), columnIndex, ex);
-            rowContext.addValidationProblem(new ValueProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), null));
+            log.warn("Problem processing row: {}@#{}, column: {}@#{}", row.getSheetName(), row.getRowNum(), options.getColumnName(), columnIndex, ex);
+            rowContext.addValidationProblem(new ValueProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), null));
             return null;
         }
     }
 
-    public static <T> LocalTime getLocalTime(RowContext<T> rowContext, Row row, int columnIndex, ColumnOptions options) {
+    public static <T> LocalTime getLocalTime(RowContext<T> rowContext, SpreadsheetRow row, int columnIndex, ColumnOptions options) {
         try {
-            Cell cell = row.getCell(columnIndex);
+            CellType cellType = row.getCellType(columnIndex);
 
-            if (cell == null) {
+            if (cellType == null) {
                 if (options.isRequired()) {
-                    rowContext.addValidationProblem(new ValueNullProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName()));
+                    rowContext.addValidationProblem(new ValueNullProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName()));
                 }
                 return null;
             }
-            if (cell.getCellType().equals(CellType.NUMERIC)) {
-                return cell.getLocalDateTimeCellValue().toLocalTime();
+            if (cellType.equals(CellType.NUMERIC)) {
+                return row.getLocalDateTimeCellValue(columnIndex).toLocalTime();
             }
 
-            if (cell.getCellType().equals(CellType.FORMULA)) {
-                LocalDateTime localDateTime = getLocalDateTimeIfFormula(cell, rowContext, row, columnIndex, options);
+            if (cellType.equals(CellType.FORMULA)) {
+                LocalDateTime localDateTime = getLocalDateTimeIfFormula(rowContext, row, columnIndex, options);
                 if (localDateTime == null) {
                     return null;
                 } else {
@@ -317,44 +318,44 @@ public class ColumnUtil {
                 }
             }
 
-            String matches = options.getMatches();
-            String string = getStringFromCell(cell, rowContext, row, columnIndex, options);
+            DateTimeFormatter formatter = options.getDateTimeFormatter();
+            String string = getStringFromCell(rowContext, row, columnIndex, options);
             if (string == null) {
                 return null;
             }
-            if (matches != null && !matches.isEmpty()) {
-                return LocalTime.parse(string, DateTimeFormatter.ofPattern(matches));
+            if (formatter != null) {
+                return LocalTime.parse(string, formatter);
             } else {
                 return LocalTime.parse(string);
             }
 
 
         } catch (Exception ex) {
-            log.warn("Problem processing row: {}@#{}, column: {}@#{}", row.getSheet().getSheetName(), row.getRowNum(), options.getColumnName(), columnIndex, ex);
-            rowContext.addValidationProblem(new ValueProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), null));
+            log.warn("Problem processing row: {}@#{}, column: {}@#{}", row.getSheetName(), row.getRowNum(), options.getColumnName(), columnIndex, ex);
+            rowContext.addValidationProblem(new ValueProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), null));
             return null;
         }
     }
 
-    private static <T> LocalDateTime getLocalDateTimeIfFormula(Cell cell, RowContext<T> rowContext, Row row, int columnIndex, ColumnOptions options) {
-        CellValue cellValue = getCellValueFromFormula(cell, rowContext, row, columnIndex, options);
+    private static <T> LocalDateTime getLocalDateTimeIfFormula(RowContext<T> rowContext, SpreadsheetRow row, int columnIndex, ColumnOptions options) {
+        CellValue cellValue = getCellValueFromFormula(rowContext, row, columnIndex, options);
         if (cellValue == null) {
             return null;
         }
         try {
-            return cell.getLocalDateTimeCellValue();
+            return row.getLocalDateTimeCellValue(columnIndex);
         } catch (Exception e) {
-            log.warn("Problem processing row: {}@#{}, column: {}@#{}", row.getSheet().getSheetName(), row.getRowNum(), options.getColumnName(), columnIndex, e);
-            rowContext.addValidationProblem(new ValueProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), cellValue.formatAsString()));
+            log.warn("Problem processing row: {}@#{}, column: {}@#{}", row.getSheetName(), row.getRowNum(), options.getColumnName(), columnIndex, e);
+            rowContext.addValidationProblem(new ValueProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), cellValue.formatAsString()));
             return null;
         }
     }
 
-    private static <T> String getStringFromCell(Cell cell, RowContext<T> rowContext, Row row, int columnIndex, ColumnOptions options) {
-        String string = dataFormatter.formatCellValue(cell);
+    private static <T> String getStringFromCell(RowContext<T> rowContext, SpreadsheetRow row, int columnIndex, ColumnOptions options) {
+        String string = row.getFormattedCellValue(columnIndex);
         if (string == null || string.isEmpty()) {
             if (options.isRequired()) {
-                rowContext.addValidationProblem(new ValueNullProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName()));
+                rowContext.addValidationProblem(new ValueNullProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName()));
             }
             return null;
         }
@@ -377,16 +378,17 @@ public class ColumnUtil {
         return processedStr;
     }
 
-    private static <T> CellValue getCellValueFromFormula(Cell cell, RowContext<T> rowContext, Row row, int columnIndex, ColumnOptions options) {
+    private static <T> CellValue getCellValueFromFormula(RowContext<T> rowContext, SpreadsheetRow row, int columnIndex, ColumnOptions options) {
         if (!options.isFormulaAllowed()) {
-            rowContext.addValidationProblem(new ValueFormulaNotAllowedProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), cell.getCellFormula()));
+            rowContext.addValidationProblem(new ValueFormulaNotAllowedProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName(), row.getCellFormula(columnIndex)));
             return null;
         }
-        FormulaEvaluator evaluator = row.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
-        CellValue cellValue = evaluator.evaluate(cell);
+        Object formulaEvent = ImportEvents.beginFormulaEvaluation();
+        CellValue cellValue = row.evaluateFormula(columnIndex);
+        ImportEvents.endFormulaEvaluation(formulaEvent, row.getSheetName(), row.getRowNum(), columnIndex);
         if (cellValue == null || cellValue.formatAsString().isEmpty()) {
             if (options.isRequired()) {
-                rowContext.addValidationProblem(new ValueNullProblem(row.getSheet().getSheetName(), row.getRowNum(), columnIndex, options.getColumnName()));
+                rowContext.addValidationProblem(new ValueNullProblem(row.getSheetName(), row.getRowNum(), columnIndex, options.getColumnName()));
             }
             return null;
         }
@@ -0,0 +1,92 @@
+package ro.nom.vmt.spreadsheet_importer.util;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+import org.apache.poi.ss.usermodel.CellType;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+//Matches the header cells of a sheet against the column names of a mapper, the names are compiled once for the mapper
+//A name without any regex characters can only match the exact same text so it is looked up instead of being matched
+public class HeaderMatcher {
+
+    private static final String REGEX_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    private final Set<String> fields;
+    private final Map<String, List<String>> fieldsByLiteral = new HashMap<>();
+    private final String[] patternFields;
+    private final Pattern[] patterns;
+
+    //the keys are the fields and the values the column names they match
+    public HeaderMatcher(Map<String, String> columnNames) {
+        this.fields = new LinkedHashSet<>(columnNames.keySet());
+        List<String> patternFields = new ArrayList<>();
+        List<Pattern> patterns = new ArrayList<>();
+        for (Map.Entry<String, String> columnName : columnNames.entrySet()) {
+            if (isLiteral(columnName.getValue())) {
+                fieldsByLiteral.computeIfAbsent(columnName.getValue(), name -> new ArrayList<>()).add(columnName.getKey());
+            } else {
+                patternFields.add(columnName.getKey());
+                patterns.add(Pattern.compile(columnName.getValue()));
+            }
+        }
+        this.patternFields = patternFields.toArray(new String[0]);
+        this.patterns = patterns.toArray(new Pattern[0]);
+    }
+
+    private static boolean isLiteral(String columnName) {
+        for (int i = 0; i < columnName.length(); i++) {
+            if (REGEX_CHARACTERS.indexOf(columnName.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //the columns matched by each field in the order of the header and the unmatched columns under the null key
+    //a header text found more than once keeps its first place and the index of its last appearance
+    public Map<String, LinkedHashMap<String, Integer>> match(SpreadsheetRow headerRow) {
+        Map<String, LinkedHashMap<String, Integer>> columnPositions = new HashMap<>();
+        for (String field : fields) {
+            columnPositions.put(field, new LinkedHashMap<>());
+        }
+        LinkedHashMap<String, Integer> unmatchedColumns = new LinkedHashMap<>();
+
+        for (int i = 0; i < headerRow.getLastCellNum(); i++) {
+            CellType cellType = headerRow.getCellType(i);
+            if (cellType == null || cellType.equals(CellType.BLANK)) {
+                continue;
+            }
+            String header = headerRow.getStringCellValue(i);
+            boolean matched = false;
+
+            List<String> literalFields = fieldsByLiteral.get(header);
+            if (literalFields != null) {
+                for (String field : literalFields) {
+                    columnPositions.get(field).put(header, i);
+                }
+                matched = true;
+            }
+            for (int p = 0; p < patterns.length; p++) {
+                if (patterns[p].matcher(header).matches()) {
+                    columnPositions.get(patternFields[p]).put(header, i);
+                    matched = true;
+                }
+            }
+
+            if (!matched) {
+                unmatchedColumns.put(header, i);
+            }
+        }
+
+        columnPositions.put(null, unmatchedColumns);
+        return columnPositions;
+    }
+}
@@ -21,6 +21,7 @@ public class Messages {
     public static final String SHEET_PROBLEM;
     public static final String SHEET_NOT_PRESENT;
     public static final String ROW_PROBLEM;
+    public static final String CONSUMER_PROBLEM;
     public static final String VALUE_FORMAT_PROBLEM;
     public static final String VALUE_FORMAT_REGEX_PROBLEM;
     public static final String VALUE_FORMAT_ENUM_PROBLEM;
@@ -38,6 +39,7 @@ public class Messages {
         String sheetProblem = null;
         String sheetNotPresent = null;
         String rowProblem = null;
+        String consumerProblem = null;
         String valueFormatProblem = null;
         String valueFormatRegexProblem = null;
         String valueFormatEnumProblem = null;
@@ -55,6 +57,8 @@ public class Messages {
                 sheetProblem = Objects.requireNonNull(properties.get("sheetProblem")).toString();
                 sheetNotPresent = Objects.requireNonNull(properties.get("sheetNotPresent")).toString();
                 rowProblem = Objects.requireNonNull(properties.get("rowProblem")).toString();
+                //message files written before the consumer problem existed get the message of the row problem
+                consumerProblem = properties.getProperty("consumerProblem", rowProblem);
                 valueFormatProblem = Objects.requireNonNull(properties.get("valueFormatProblem")).toString();
                 valueFormatRegexProblem = Objects.requireNonNull(properties.get("valueFormatRegexProblem")).toString();
                 valueFormatEnumProblem = Objects.requireNonNull(properties.get("valueFormatEnumProblem")).toString();
@@ -72,6 +76,7 @@ public class Messages {
             SHEET_PROBLEM = sheetProblem;
             SHEET_NOT_PRESENT = sheetNotPresent;
             ROW_PROBLEM = rowProblem;
+            CONSUMER_PROBLEM = consumerProblem;
             VALUE_FORMAT_PROBLEM = valueFormatProblem;
             VALUE_FORMAT_REGEX_PROBLEM = valueFormatRegexProblem;
             VALUE_FORMAT_ENUM_PROBLEM = valueFormatEnumProblem;
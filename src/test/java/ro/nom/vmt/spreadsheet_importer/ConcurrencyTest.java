@@ -0,0 +1,184 @@
+package ro.nom.vmt.spreadsheet_importer;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ro.nom.vmt.demo.dto.EmployeeNamed;
+import ro.nom.vmt.demo.dto.EmployeeNamedImportMapper;
+import ro.nom.vmt.demo.dto.Financial;
+import ro.nom.vmt.demo.dto.FinancialImportMapper;
+import ro.nom.vmt.spreadsheet_importer.importing.ImportData;
+import ro.nom.vmt.spreadsheet_importer.importing.Importer;
+import ro.nom.vmt.spreadsheet_importer.interfaces.Problem;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+//One importer is shared by all the threads, every import must give the same result as a sequential import
+public class ConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int IMPORTS_PER_THREAD = 4;
+
+    private static ExecutorService executor;
+
+    @BeforeAll
+    public static void startExecutor() {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterAll
+    public static void stopExecutor() {
+        executor.shutdown();
+    }
+
+    private InputStream getInputStream(String fileName) {
+        try {
+            return new FileInputStream(this.getClass().getClassLoader().getResource(fileName).getFile());
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> List<ImportData<T>> importConcurrently(Importer<T> importer, String fileName) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<ImportData<T>>>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<ImportData<T>> imports = new ArrayList<>();
+                for (int i = 0; i < IMPORTS_PER_THREAD; i++) {
+                    imports.add(importer.process(getInputStream(fileName)));
+                }
+                return imports;
+            }));
+        }
+        start.countDown();
+
+        List<ImportData<T>> imports = new ArrayList<>();
+        for (Future<List<ImportData<T>>> future : futures) {
+            imports.addAll(future.get(1, TimeUnit.MINUTES));
+        }
+        return imports;
+    }
+
+    private <T> void assertSameImport(ImportData<T> expected, ImportData<T> actual, Function<T, String> describeRow) {
+        assertEquals(expected.getNoOfSheets(), actual.getNoOfSheets());
+        assertEquals(expected.getRowNoTotal(), actual.getRowNoTotal());
+        assertEquals(expected.getRowNoValid(), actual.getRowNoValid());
+        assertEquals(expected.getRowNoInvalid(), actual.getRowNoInvalid());
+        assertEquals(getProblems(expected), getProblems(actual));
+        assertEquals(getRows(expected, describeRow), getRows(actual, describeRow));
+    }
+
+    private List<String> getProblems(ImportData<?> importData) {
+        return importData.getValidationProblems()
+                .stream()
+                .map(Problem::toString)
+                .collect(Collectors.toList());
+    }
+
+    private <T> List<String> getRows(ImportData<T> importData, Function<T, String> describeRow) {
+        return importData.getAllRows()
+                .stream()
+                .map(describeRow)
+                .collect(Collectors.toList());
+    }
+
+    private String describeEmployee(EmployeeNamed employee) {
+        return employee.getSheetName() + ":" + employee.getRowNumber() + ":" + employee.getFirstName() + ":" + employee.getLastName()
+                + ":" + employee.getAge() + ":" + employee.getSalary() + ":" + employee.getBonuses() + ":" + employee.getHiredOn()
+                + ":" + employee.getLastLogin() + ":" + employee.getUnmatchedColumns();
+    }
+
+    private String describeFinancial(Financial financial) {
+        return financial.getCountry() + ":" + financial.getProduct()
+                + ":" + financial.getGrossSales() + ":" + financial.getMonthNumber() + ":" + financial.getLocalDate();
+    }
+
+    @Test
+    public void sharedImporterTest() throws Exception {
+        Importer<EmployeeNamed> importer = Importer.build(EmployeeNamedImportMapper.class);
+        ImportData<EmployeeNamed> expected = importer.process(getInputStream("Employees.xlsx"));
+
+        for (ImportData<EmployeeNamed> actual : importConcurrently(importer, "Employees.xlsx")) {
+            assertSameImport(expected, actual, this::describeEmployee);
+        }
+    }
+
+    @Test
+    public void sharedStreamingImporterTest() throws Exception {
+        Importer<EmployeeNamed> importer = Importer.builder(EmployeeNamedImportMapper.class)
+                .withStreaming()
+                .build();
+        ImportData<EmployeeNamed> expected = importer.process(getInputStream("Employees.xlsx"));
+
+        for (ImportData<EmployeeNamed> actual : importConcurrently(importer, "Employees.xlsx")) {
+            assertSameImport(expected, actual, this::describeEmployee);
+        }
+    }
+
+    @Test
+    public void sharedXlsImporterTest() throws Exception {
+        Importer<Financial> importer = Importer.build(FinancialImportMapper.class);
+        Importer<Financial> streamingImporter = Importer.builder(FinancialImportMapper.class)
+                .withStreaming()
+                .build();
+        ImportData<Financial> expected = importer.process(getInputStream("Financial_sample.xls"));
+
+        for (ImportData<Financial> actual : importConcurrently(importer, "Financial_sample.xls")) {
+            assertSameImport(expected, actual, this::describeFinancial);
+        }
+        for (ImportData<Financial> actual : importConcurrently(streamingImporter, "Financial_sample.xls")) {
+            assertSameImport(expected, actual, this::describeFinancial);
+        }
+    }
+
+    @Test
+    public void sharedCsvImporterTest() throws Exception {
+        AtomicInteger consumed = new AtomicInteger();
+        Importer<EmployeeNamed> importer = Importer.builder(EmployeeNamedImportMapper.class)
+                .withCsv(',', "London E", StandardCharsets.UTF_8)
+                .withConsumer(employee -> consumed.incrementAndGet())
+                .build();
+        ImportData<EmployeeNamed> expected = importer.process(getInputStream("Employees.csv"));
+
+        for (ImportData<EmployeeNamed> actual : importConcurrently(importer, "Employees.csv")) {
+            assertSameImport(expected, actual, this::describeEmployee);
+        }
+        assertEquals(expected.getRowNoTotal() * (THREADS * IMPORTS_PER_THREAD + 1), consumed.get());
+    }
+
+    @Test
+    public void builderReuseTest() throws FileNotFoundException {
+        AtomicInteger consumed = new AtomicInteger();
+        Importer.ImporterBuilder<EmployeeNamed> builder = Importer.builder(EmployeeNamedImportMapper.class);
+        Importer<EmployeeNamed> importer = builder.build();
+        //the importer that was already built is not changed by using the builder again
+        builder.withConsumer(employee -> consumed.incrementAndGet()).withStreaming();
+        importer.process(getInputStream("Employees.xlsx"));
+
+        assertEquals(0, consumed.get());
+        assertThrows(UnsupportedOperationException.class, () -> new EmployeeNamedImportMapper().getSheetNames().clear());
+    }
+}
@@ -0,0 +1,124 @@
+package ro.nom.vmt.spreadsheet_importer;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+
+import org.junit.jupiter.api.Test;
+import ro.nom.vmt.demo.BusinessProblem;
+import ro.nom.vmt.demo.GenderEnum;
+import ro.nom.vmt.demo.dto.EmployeeNamed;
+import ro.nom.vmt.demo.dto.EmployeeNamedImportMapper;
+import ro.nom.vmt.spreadsheet_importer.importing.ImportData;
+import ro.nom.vmt.spreadsheet_importer.importing.Importer;
+import ro.nom.vmt.spreadsheet_importer.problems.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvTest {
+
+    private final ImportData<EmployeeNamed> importData;
+
+    public CsvTest() throws FileNotFoundException {
+        InputStream is = new FileInputStream(this.getClass().getClassLoader().getResource("Employees.csv").getFile());
+        importData = Importer.builder(EmployeeNamedImportMapper.class)
+                .withCsv(',', "London E", StandardCharsets.UTF_8)
+                .build()
+                .process(is);
+    }
+
+    @Test
+    public void importedCountsTest() {
+        assertEquals(3, importData.getRowNoTotal());
+        assertEquals(2, importData.getRowNoValid());
+        assertEquals(1, importData.getRowNoInvalid());
+    }
+
+    @Test
+    public void importValuesTest() {
+        EmployeeNamed employee = importData.getAllRows().get(0);
+        assertEquals("London E", employee.getSheetName());
+        assertEquals(0, employee.getSheetIndex());
+        assertEquals(1, employee.getRowNumber());
+        assertEquals("Ellia", employee.getFirstName());
+        assertEquals("RICHARDSON", employee.getLastName());
+        assertEquals(GenderEnum.FEMALE, employee.getGender());
+        assertEquals((byte) 28, employee.getAge());
+        assertEquals("013-2182-19", employee.getPhone());
+        assertEquals(8389, employee.getSalary());
+        assertEquals(Boolean.FALSE, employee.getIsMarried());
+        assertEquals(Arrays.asList("Hope", "you"), employee.getBonuses());
+        assertEquals(LocalDate.of(2015, 1, 22), employee.getHiredOn());
+        assertEquals(LocalTime.of(8, 0), employee.getStartsWorkAt());
+        assertEquals(LocalDateTime.of(2021, 6, 11, 13, 40), employee.getLastLogin());
+        assertEquals(LocalDateTime.of(2021, 9, 25, 17, 22), employee.getPasswordExpires());
+    }
+
+    @Test
+    public void importQuotedTest() {
+        //the empty line is skipped and the quoted line break does not start a new row
+        EmployeeNamed employee = importData.getAllRows().get(1);
+        assertEquals(3, employee.getRowNumber());
+        assertEquals("are, \"really\" doing", employee.getUnmatchedColumns().get("Random"));
+        assertEquals("multiple\r\nlines", employee.getUnmatchedColumns().get("Column"));
+        assertEquals(LocalDate.of(2018, 3, 1), employee.getHiredOn());
+    }
+
+    @Test
+    public void importProblemsTest() {
+        EmployeeNamed employee = importData.getInvalidRows().get(0);
+        Set<Class<?>> problemClasses = importData.getValidationProblems(employee)
+                .stream()
+                .map(Object::getClass)
+                .collect(Collectors.toSet());
+
+        assertEquals(new HashSet<>(Arrays.asList(ValueFormatRegexProblem.class, ValueRangeProblem.class, ValueFormatProblem.class,
+                ValueProblem.class, BusinessProblem.class)), problemClasses);
+        assertNull(employee.getAge());
+        assertNull(employee.getHiredOn());
+    }
+
+    @Test
+    public void importTsvTest() {
+        String tsv = "First Name\tLast Name\tGender\tAge\tEmail\tPhone\tSalary\tMarried\tBonus 1\tHired on\tStarts work at\tLast login\tPassword expires\n"
+                + "Ellia\tRichardson\tFemale\t28\te.richardson@randatmail.com\t013-2182-19\t8389\tno\t\"Hope\tyou\"\t2015-01-22\t08:00\t2021-06-11T13:40\t21-09-25_17:22\n";
+        ImportData<EmployeeNamed> tsvImportData = Importer.builder(EmployeeNamedImportMapper.class)
+                .withCsv('\t', "London W", StandardCharsets.UTF_8)
+                .build()
+                .process(new ByteArrayInputStream(tsv.getBytes(StandardCharsets.UTF_8)));
+
+        assertTrue(tsvImportData.isValid());
+        assertEquals(1, tsvImportData.getRowNoValid());
+        assertEquals("London W", tsvImportData.getValidRows().get(0).getSheetName());
+        assertEquals(Arrays.asList("Hope\tyou"), tsvImportData.getValidRows().get(0).getBonuses());
+    }
+
+    @Test
+    public void missingColumnTest() {
+        String csv = "First Name,Email\nEllia,e.richardson@randatmail.com\n";
+        ImportData<EmployeeNamed> csvImportData = Importer.builder(EmployeeNamedImportMapper.class)
+                .withCsv(',')
+                .build()
+                .process(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(0, csvImportData.getRowNoTotal());
+        assertFalse(csvImportData.getValidationProblems(ColumnNotPresentProblem.class).isEmpty());
+    }
+}
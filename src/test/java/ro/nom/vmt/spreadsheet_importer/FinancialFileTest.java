@@ -13,6 +13,7 @@ import ro.nom.vmt.demo.BusinessProblem;
 import ro.nom.vmt.demo.dto.Financial;
 import ro.nom.vmt.demo.dto.FinancialImportMapper;
 import ro.nom.vmt.spreadsheet_importer.importing.ImportData;
+import ro.nom.vmt.spreadsheet_importer.importing.ImportMetrics;
 import ro.nom.vmt.spreadsheet_importer.importing.Importer;
 import ro.nom.vmt.spreadsheet_importer.problems.RowProblem;
 import ro.nom.vmt.spreadsheet_importer.problems.ValueFormatRegexProblem;
@@ -26,7 +27,9 @@ import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -154,4 +157,31 @@ public class FinancialFileTest {
         assertEquals(1, importData.getNoOfSheets());
     }
 
+    @Test
+    public void metricsTest() throws IOException {
+        assertNull(importData.getMetrics());
+
+        AtomicInteger consumed = new AtomicInteger();
+        InputStream is = new FileInputStream(this.getClass().getClassLoader().getResource("Financial_sample.xls").getFile());
+        ImportData<Financial> measured = Importer.builder(FinancialImportMapper.class)
+                .withMetrics()
+                .withValidator((financial, pair) -> null)
+                .withConsumer(financial -> consumed.incrementAndGet())
+                .build()
+                .process(is);
+        ImportMetrics metrics = measured.getMetrics();
+
+        assertNotNull(metrics);
+        assertEquals(700, metrics.getRowNo());
+        assertEquals(measured.getProblemCounts(), metrics.getProblemCounts());
+        assertTrue(metrics.getTotalNanos() > 0);
+        assertTrue(metrics.getOpenNanos() > 0);
+        assertTrue(metrics.getHeaderNanos() > 0);
+        assertTrue(metrics.getMapNanos() > 0);
+        assertTrue(metrics.getValidatorNanos() > 0);
+        assertTrue(metrics.getConsumerNanos() > 0);
+        assertTrue(metrics.getRowsPerSecond() > 0);
+        assertTrue(metrics.getColumnNanos().keySet().containsAll(Arrays.asList("segment", "country", "grossSales", "localDate")));
+        assertEquals(700, consumed.get());
+    }
 }
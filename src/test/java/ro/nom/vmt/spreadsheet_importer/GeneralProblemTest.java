@@ -61,6 +61,21 @@ public class GeneralProblemTest {
         assertTrue(importData.getValidationProblems().get(0) instanceof ColumnNotPresentProblem);
     }
 
+    @Test
+    public void importRequiredColumnMissingCachedTest() throws IOException {
+        Importer<EmployeeNamed> importer = Importer.builder(EmployeeNamedImportMapper.class).withHeaderCache(1).build();
+
+        for (int run = 0; run < 2; run++) {
+            InputStream is = new FileInputStream(this.getClass().getClassLoader().getResource("Employees_required_column_missing.xlsx").getFile());
+            ImportData<EmployeeNamed> importData = importer.process(is);
+
+            assertFalse(importData.isValid());
+            assertEquals(0, importData.getRowNoTotal());
+            assertEquals(8, importData.getValidationProblems().size());
+            assertTrue(importData.getValidationProblems().get(0) instanceof ColumnNotPresentProblem);
+        }
+    }
+
     @Test
     public void importNotExcelTest() throws IOException {
 
@@ -0,0 +1,87 @@
+package ro.nom.vmt.spreadsheet_importer;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import ro.nom.vmt.demo.dto.EmployeeNamed;
+import ro.nom.vmt.demo.dto.EmployeeNamedImportMapper;
+import ro.nom.vmt.demo.dto.Financial;
+import ro.nom.vmt.demo.dto.FinancialImportMapper;
+import ro.nom.vmt.spreadsheet_importer.importing.ImportData;
+import ro.nom.vmt.spreadsheet_importer.importing.Importer;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JfrTest {
+
+    private static final String PREFIX = "ro.nom.vmt.spreadsheet_importer.";
+
+    private InputStream getInputStream(String fileName) throws IOException {
+        return new FileInputStream(this.getClass().getClassLoader().getResource(fileName).getFile());
+    }
+
+    private List<RecordedEvent> getEvents(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(PREFIX + name))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void importEventsTest() throws IOException {
+        Path file = Files.createTempFile("import", ".jfr");
+        ImportData<EmployeeNamed> importData;
+        ImportData<Financial> financialData;
+        try (Recording recording = new Recording()) {
+            recording.enable(PREFIX + "Import");
+            recording.enable(PREFIX + "Sheet");
+            //every row and formula is recorded instead of only the slow ones
+            recording.enable(PREFIX + "SlowRow").withThreshold(Duration.ZERO);
+            recording.enable(PREFIX + "FormulaEvaluation").withThreshold(Duration.ZERO);
+            recording.start();
+            importData = Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx"));
+            financialData = Importer.build(FinancialImportMapper.class).process(getInputStream("Financial_sample.xls"));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+
+        List<RecordedEvent> imports = getEvents(events, "Import");
+        assertEquals(2, imports.size());
+        RecordedEvent employeeImport = imports.stream().filter(event -> event.getLong("rows") == importData.getRowNoTotal()).findFirst().orElse(null);
+        assertEquals("WorkbookReader", employeeImport.getString("reader"));
+        assertEquals(importData.getNoOfSheets(), employeeImport.getInt("sheets"));
+        assertEquals(importData.getRowNoValid(), employeeImport.getLong("validRows"));
+        assertEquals(importData.getValidationProblemsNo(), employeeImport.getLong("problems"));
+
+        List<RecordedEvent> sheets = getEvents(events, "Sheet");
+        assertEquals(importData.getNoOfSheets() + financialData.getNoOfSheets(), sheets.size());
+        assertEquals(importData.getRowNoTotal() + financialData.getRowNoTotal(), sheets.stream().mapToLong(event -> event.getLong("rows")).sum());
+
+        List<RecordedEvent> rows = getEvents(events, "SlowRow");
+        assertEquals(importData.getRowNoTotal() + financialData.getRowNoTotal(), rows.size());
+        assertEquals(importData.getRowNoInvalid() + financialData.getRowNoInvalid(), rows.stream().filter(event -> !event.getBoolean("valid")).count());
+
+        assertTrue(getEvents(events, "FormulaEvaluation").size() > 0);
+    }
+}
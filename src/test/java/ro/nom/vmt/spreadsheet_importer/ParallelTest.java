@@ -0,0 +1,372 @@
+package ro.nom.vmt.spreadsheet_importer;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ro.nom.vmt.demo.dto.EmployeeNamed;
+import ro.nom.vmt.demo.dto.EmployeeNamedImportMapper;
+import ro.nom.vmt.spreadsheet_importer.importing.ImportData;
+import ro.nom.vmt.spreadsheet_importer.importing.Importer;
+import ro.nom.vmt.spreadsheet_importer.interfaces.Problem;
+import ro.nom.vmt.spreadsheet_importer.problems.ConsumerProblem;
+import ro.nom.vmt.spreadsheet_importer.problems.FileProblem;
+import ro.nom.vmt.spreadsheet_importer.problems.RowProblem;
+import ro.nom.vmt.spreadsheet_importer.problems.ValueFormatProblem;
+import ro.nom.vmt.spreadsheet_importer.problems.ValueProblem;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelTest {
+
+    private static ExecutorService executor;
+
+    @BeforeAll
+    public static void startExecutor() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    public static void stopExecutor() {
+        executor.shutdown();
+    }
+
+    private InputStream getInputStream(String fileName) throws FileNotFoundException {
+        return new FileInputStream(this.getClass().getClassLoader().getResource(fileName).getFile());
+    }
+
+    private List<String> getProblems(ImportData<?> importData) {
+        return importData.getValidationProblems()
+                .stream()
+                .map(Problem::toString)
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> getImportIndexes(List<EmployeeNamed> rows) {
+        return rows.stream().map(EmployeeNamed::getImportIndex).collect(Collectors.toList());
+    }
+
+    //the indexes the rows of a sequential import get when the sheets are imported in parallel, the n-th sheet numbers
+    //its rows from (n << 32) + 1
+    private List<Long> getParallelImportIndexes(ImportData<EmployeeNamed> sequential) {
+        List<Long> importIndexes = new ArrayList<>();
+        Map<String, Long> sheetOrdinals = new HashMap<>();
+        Map<String, Long> sheetRows = new HashMap<>();
+        for (EmployeeNamed row : sequential.getAllRows()) {
+            long sheetOrdinal = sheetOrdinals.computeIfAbsent(row.getSheetName(), name -> (long) sheetOrdinals.size());
+            importIndexes.add(sheetOrdinal << 32 | sheetRows.merge(row.getSheetName(), 1L, Long::sum));
+        }
+        return importIndexes;
+    }
+
+    @Test
+    public void parallelSheetsTest() throws FileNotFoundException {
+        ImportData<EmployeeNamed> expected = Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx"));
+        List<Long> sequentialImportIndexes = getImportIndexes(expected.getAllRows());
+        List<Long> parallelImportIndexes = getParallelImportIndexes(expected);
+        //the same file is imported a few times to give the threads a chance to finish in a different order
+        //only the streamed xlsx files open each sheet on its own, the loaded workbooks are imported one sheet after the other
+        for (int run = 0; run < 6; run++) {
+            Importer.ImporterBuilder<EmployeeNamed> builder = Importer.builder(EmployeeNamedImportMapper.class).withParallelSheets(executor);
+            if (run % 2 == 0) {
+                builder.withStreaming();
+            }
+            ImportData<EmployeeNamed> parallel = builder.build().process(getInputStream("Employees.xlsx"));
+            List<Long> expectedImportIndexes = run % 2 == 0 ? parallelImportIndexes : sequentialImportIndexes;
+
+            assertEquals(expected.getNoOfSheets(), parallel.getNoOfSheets());
+            assertEquals(expected.getRowNoTotal(), parallel.getRowNoTotal());
+            assertEquals(expected.getRowNoValid(), parallel.getRowNoValid());
+            assertEquals(getProblems(expected), getProblems(parallel));
+
+            for (int i = 0; i < expected.getAllRows().size(); i++) {
+                EmployeeNamed expectedRow = expected.getAllRows().get(i);
+                EmployeeNamed parallelRow = parallel.getAllRows().get(i);
+                assertEquals(expectedRow.getSheetName(), parallelRow.getSheetName());
+                assertEquals(expectedRow.getRowNumber(), parallelRow.getRowNumber());
+                assertEquals(expectedImportIndexes.get(i), parallelRow.getImportIndex());
+                assertSame(parallelRow, parallel.getRowByImportIndex(parallelRow.getImportIndex()));
+                assertEquals(expectedRow.getFirstName(), parallelRow.getFirstName());
+                assertEquals(expectedRow.getHiredOn(), parallelRow.getHiredOn());
+                assertEquals(expected.getValidationProblems(expectedRow).size(), parallel.getValidationProblems(parallelRow).size());
+            }
+        }
+    }
+
+    private void assertSameImport(ImportData<EmployeeNamed> expected, ImportData<EmployeeNamed> actual) {
+        assertSameImport(expected, actual, getImportIndexes(expected.getAllRows()));
+    }
+
+    private void assertSameImport(ImportData<EmployeeNamed> expected, ImportData<EmployeeNamed> actual, List<Long> expectedImportIndexes) {
+        assertEquals(expected.getRowNoTotal(), actual.getRowNoTotal());
+        assertEquals(expected.getRowNoValid(), actual.getRowNoValid());
+        assertEquals(getProblems(expected), getProblems(actual));
+        //the problems indexed by class keep the order of the rows even when the rows are mapped out of order
+        assertEquals(expected.getValidationProblems(ValueFormatProblem.class).toString(), actual.getValidationProblems(ValueFormatProblem.class).toString());
+        assertEquals(expected.getValidationProblemsTree(RowProblem.class).toString(), actual.getValidationProblemsTree(RowProblem.class).toString());
+        assertEquals(expected.getInvalidRows(ValueProblem.class).size(), actual.getInvalidRows(ValueProblem.class).size());
+        assertEquals(expected.toString(), actual.toString());
+
+        for (int i = 0; i < expected.getAllRows().size(); i++) {
+            EmployeeNamed expectedRow = expected.getAllRows().get(i);
+            EmployeeNamed actualRow = actual.getAllRows().get(i);
+            assertEquals(expectedRow.getSheetName(), actualRow.getSheetName());
+            assertEquals(expectedRow.getRowNumber(), actualRow.getRowNumber());
+            assertEquals(expectedImportIndexes.get(i), actualRow.getImportIndex());
+            assertEquals(expectedRow.getFirstName(), actualRow.getFirstName());
+            assertEquals(expectedRow.getSalary(), actualRow.getSalary());
+            assertEquals(expectedRow.getHiredOn(), actualRow.getHiredOn());
+            assertEquals(expectedRow.getUnmatchedColumns(), actualRow.getUnmatchedColumns());
+            assertEquals(expected.getValidationProblems(expectedRow).size(), actual.getValidationProblems(actualRow).size());
+        }
+    }
+
+    @Test
+    public void pipelineTest() throws FileNotFoundException {
+        ImportData<EmployeeNamed> expected = Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx"));
+        //a queue of a single row makes the reading wait for the workers most of the time
+        ImportData<EmployeeNamed> pipelined = Importer.builder(EmployeeNamedImportMapper.class)
+                .withPipeline(executor, 3, 1)
+                .build()
+                .process(getInputStream("Employees.xlsx"));
+        ImportData<EmployeeNamed> streamed = Importer.builder(EmployeeNamedImportMapper.class)
+                .withStreaming()
+                .withPipeline(executor)
+                .build()
+                .process(getInputStream("Employees.xlsx"));
+
+        assertSameImport(expected, pipelined);
+        assertSameImport(expected, streamed);
+    }
+
+    @Test
+    public void pipelineFailureTest() throws FileNotFoundException {
+        ImportData<EmployeeNamed> pipelined = Importer.builder(EmployeeNamedImportMapper.class)
+                .withPipeline(executor, 2, 1)
+                .withConsumer(employee -> {
+                    throw new IllegalStateException("Consumer failure");
+                })
+                .build()
+                .process(getInputStream("Employees.xlsx"));
+
+        assertEquals(1, pipelined.getValidationProblems(FileProblem.class).size());
+        //the rows left in the queue when the import stopped are not kept
+        assertFalse(pipelined.getAllRows().contains(null));
+        assertFalse(pipelined.getValidRows().contains(null));
+        assertEquals(pipelined.getRowNoTotal(), pipelined.getAllRows().size());
+        assertEquals(pipelined.getRowNoValid(), pipelined.getValidRows().size());
+        assertTrue(pipelined.getRowNoTotal() < Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx")).getRowNoTotal());
+    }
+
+    @Test
+    public void parallelSheetsWithPipelineTest() throws FileNotFoundException {
+        ExecutorService pipelineExecutor = Executors.newFixedThreadPool(2);
+        try {
+            ImportData<EmployeeNamed> expected = Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx"));
+            ImportData<EmployeeNamed> parallel = Importer.builder(EmployeeNamedImportMapper.class)
+                    .withStreaming()
+                    .withParallelSheets(executor)
+                    .withPipeline(pipelineExecutor, 2, 1)
+                    .build()
+                    .process(getInputStream("Employees.xlsx"));
+            assertSameImport(expected, parallel, getParallelImportIndexes(expected));
+        } finally {
+            pipelineExecutor.shutdown();
+        }
+
+        //the sheets would wait for pipeline workers that cannot get a thread
+        assertThrows(IllegalStateException.class, () -> Importer.builder(EmployeeNamedImportMapper.class)
+                .withParallelSheets(executor)
+                .withPipeline(executor)
+                .build());
+    }
+
+    @Test
+    public void parallelConsumerTest() throws FileNotFoundException {
+        AtomicInteger consumed = new AtomicInteger();
+        ImportData<EmployeeNamed> parallel = Importer.builder(EmployeeNamedImportMapper.class)
+                .withStreaming()
+                .withParallelSheets(executor)
+                .withConsumer(employee -> consumed.incrementAndGet())
+                .build()
+                .process(getInputStream("Employees.xlsx"));
+
+        assertEquals(parallel.getRowNoTotal(), consumed.get());
+    }
+
+    @Test
+    public void parallelSheetsImportIndexTest() throws FileNotFoundException {
+        List<Long> expectedImportIndexes = getParallelImportIndexes(Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx")));
+        for (boolean retainRows : new boolean[]{true, false}) {
+            List<Long> consumed = Collections.synchronizedList(new ArrayList<>());
+            ImportData<EmployeeNamed> parallel = Importer.builder(EmployeeNamedImportMapper.class)
+                    .withStreaming()
+                    .withParallelSheets(executor)
+                    .withRetainedRows(retainRows)
+                    .withConsumer(employee -> consumed.add(employee.getImportIndex()))
+                    .build()
+                    .process(getInputStream("Employees.xlsx"));
+
+            //the consumers of different sheets run at the same time but see the indexes the rows end up with
+            List<Long> sortedConsumed = new ArrayList<>(consumed);
+            Collections.sort(sortedConsumed);
+            assertEquals(expectedImportIndexes, sortedConsumed);
+            if (retainRows) {
+                assertEquals(expectedImportIndexes, getImportIndexes(parallel.getAllRows()));
+            }
+        }
+    }
+
+    @Test
+    public void pipelineBatchConsumerTest() throws FileNotFoundException {
+        List<EmployeeNamed> consumed = Collections.synchronizedList(new ArrayList<>());
+        ImportData<EmployeeNamed> pipelined = Importer.builder(EmployeeNamedImportMapper.class)
+                .withPipeline(executor, 2, 4)
+                .withBatchConsumer(5, batch -> {
+                    assertTrue(batch.size() <= 5);
+                    consumed.addAll(batch);
+                })
+                .build()
+                .process(getInputStream("Employees.xlsx"));
+
+        assertEquals(pipelined.getRowNoTotal(), consumed.size());
+        assertTrue(consumed.containsAll(pipelined.getAllRows()));
+    }
+
+    @Test
+    public void asyncConsumerTest() throws FileNotFoundException {
+        AtomicInteger consumed = new AtomicInteger();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<EmployeeNamed> batched = Collections.synchronizedList(new ArrayList<>());
+        ImportData<EmployeeNamed> async = Importer.builder(EmployeeNamedImportMapper.class)
+                .withAsyncConsumers(executor, 2)
+                .withConsumer(employee -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(2);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    inFlight.decrementAndGet();
+                    consumed.incrementAndGet();
+                })
+                .withBatchConsumer(4, batched::addAll)
+                .build()
+                .process(getInputStream("Employees.xlsx"));
+
+        //every row was delivered by the time process returned
+        assertEquals(async.getRowNoTotal(), consumed.get());
+        assertEquals(async.getRowNoTotal(), batched.size());
+        assertTrue(maxInFlight.get() <= 2);
+        assertTrue(async.getValidationProblems(ConsumerProblem.class).isEmpty());
+    }
+
+    @Test
+    public void asyncConsumerFailureTest() throws FileNotFoundException {
+        AtomicInteger consumed = new AtomicInteger();
+        ImportData<EmployeeNamed> async = Importer.builder(EmployeeNamedImportMapper.class)
+                .withAsyncConsumers(executor, 4)
+                .withConsumerForInvalid(employee -> {
+                    throw new IllegalStateException("Consumer failure");
+                })
+                .withConsumerForValid(employee -> consumed.incrementAndGet())
+                .build()
+                .process(getInputStream("Employees.xlsx"));
+
+        //the failures do not stop the import, every failed row gets its own problem
+        assertEquals(async.getRowNoValid(), consumed.get());
+        List<Problem> problems = async.getValidationProblems(ConsumerProblem.class);
+        assertEquals(async.getRowNoInvalid(), problems.size());
+        assertTrue(problems.stream().allMatch(problem -> ((ConsumerProblem) problem).getException() instanceof IllegalStateException));
+        assertTrue(async.getValidationProblems(FileProblem.class).isEmpty());
+    }
+
+    @Test
+    public void asyncConsumerValidityTest() throws FileNotFoundException {
+        ImportData<EmployeeNamed> expected = Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx"));
+        ImportData<EmployeeNamed> async = Importer.builder(EmployeeNamedImportMapper.class)
+                .withAsyncConsumers(executor, 4)
+                .withConsumerForValid(employee -> {
+                    throw new IllegalStateException("Consumer failure");
+                })
+                .build()
+                .process(getInputStream("Employees.xlsx"));
+
+        //the rows whose consumers failed are no longer valid
+        assertTrue(expected.getRowNoValid() > 0);
+        assertEquals(0, async.getRowNoValid());
+        assertEquals(expected.getRowNoTotal(), async.getRowNoInvalid());
+        assertTrue(async.getValidRows().isEmpty());
+        assertEquals(expected.getValidRows().size(), async.getInvalidRows(ConsumerProblem.class).size());
+        assertEquals(expected.getRowNoValid(), (long) async.getProblemCounts().get(ConsumerProblem.class));
+        assertEquals(expected.getValidationProblemsNo() + expected.getRowNoValid(), async.getValidationProblemsNo());
+        assertFalse(async.isValid());
+    }
+
+    @Test
+    public void asyncBatchConsumerFailureTest() throws FileNotFoundException {
+        long rowNo = Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx")).getRowNoTotal();
+        List<EmployeeNamed> delivered = Collections.synchronizedList(new ArrayList<>());
+        ImportData<EmployeeNamed> async = Importer.builder(EmployeeNamedImportMapper.class)
+                .withAsyncConsumers(executor, 4)
+                .withBatchConsumer(3, batch -> {
+                    throw new IllegalStateException("Batch consumer failure");
+                })
+                .withBatchConsumer(3, delivered::addAll)
+                .build()
+                .process(getInputStream("Employees.xlsx"));
+
+        //every row of a failed batch gets the problem, including the last batch which is not full
+        assertTrue(rowNo % 3 != 0);
+        assertEquals(rowNo, async.getInvalidRows(ConsumerProblem.class).size());
+        assertEquals(rowNo, (long) async.getProblemCounts().get(ConsumerProblem.class));
+        assertEquals(0, async.getRowNoValid());
+        assertTrue(async.getValidationProblems(FileProblem.class).isEmpty());
+        //the other batch consumer still gets every row
+        assertEquals(rowNo, delivered.size());
+    }
+
+    @Test
+    public void lastBatchFailureTest() throws FileNotFoundException {
+        ImportData<EmployeeNamed> expected = Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx"));
+        List<EmployeeNamed> delivered = new ArrayList<>();
+        ImportData<EmployeeNamed> imported = Importer.builder(EmployeeNamedImportMapper.class)
+                .withBatchConsumer(1000, batch -> {
+                    throw new IllegalStateException("Batch consumer failure");
+                })
+                .withBatchConsumer(1000, delivered::addAll)
+                .build()
+                .process(getInputStream("Employees.xlsx"));
+
+        //the batches left for the end of the import are reported on their rows and delivered independently
+        assertEquals(expected.getRowNoTotal(), imported.getInvalidRows(ConsumerProblem.class).size());
+        assertEquals(expected.getRowNoTotal(), imported.getRowNoInvalid());
+        assertTrue(imported.getValidationProblems(FileProblem.class).isEmpty());
+        assertEquals(expected.getRowNoTotal(), delivered.size());
+    }
+}
@@ -0,0 +1,639 @@
+package ro.nom.vmt.spreadsheet_importer;
+
+/*
+ *@Author Mihai Vasile (2021)
+ *
+ * This file is part of the Spreadsheet Importer project
+ * This file as well as the project have an MIT license
+ */
+
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import ro.nom.vmt.demo.dto.EmployeeNamed;
+import ro.nom.vmt.demo.dto.EmployeeNamedImportMapper;
+import ro.nom.vmt.demo.dto.EmployeeOrdinal;
+import ro.nom.vmt.demo.dto.EmployeeOrdinalImportMapper;
+import ro.nom.vmt.demo.dto.Financial;
+import ro.nom.vmt.demo.dto.FinancialImportMapper;
+import ro.nom.vmt.spreadsheet_importer.importing.ImportData;
+import ro.nom.vmt.spreadsheet_importer.importing.Importer;
+import ro.nom.vmt.spreadsheet_importer.importing.RowResult;
+import ro.nom.vmt.spreadsheet_importer.interfaces.Problem;
+import ro.nom.vmt.spreadsheet_importer.interfaces.ProjectableRowIterator;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetReader;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+import ro.nom.vmt.spreadsheet_importer.problems.ColumnNotPresentProblem;
+import ro.nom.vmt.spreadsheet_importer.problems.FileProblem;
+import ro.nom.vmt.spreadsheet_importer.reading.StreamedRow;
+import ro.nom.vmt.spreadsheet_importer.reading.XlsStreamingReader;
+import ro.nom.vmt.spreadsheet_importer.reading.XlsxStreamingReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamingTest {
+
+    private InputStream getInputStream(String fileName) throws FileNotFoundException {
+        return new FileInputStream(this.getClass().getClassLoader().getResource(fileName).getFile());
+    }
+
+    private List<String> getProblemClasses(ImportData<?> importData) {
+        return importData.getValidationProblems()
+                .stream()
+                .map(Problem::getClass)
+                .map(Class::getName)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void namedStreamingTest() throws FileNotFoundException {
+        ImportData<EmployeeNamed> expected = Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx"));
+        ImportData<EmployeeNamed> streamed = Importer.builder(EmployeeNamedImportMapper.class)
+                .withStreaming()
+                .build()
+                .process(getInputStream("Employees.xlsx"));
+
+        assertEquals(expected.getRowNoTotal(), streamed.getRowNoTotal());
+        assertEquals(expected.getRowNoValid(), streamed.getRowNoValid());
+        assertEquals(getProblemClasses(expected), getProblemClasses(streamed));
+
+        for (int i = 0; i < expected.getAllRows().size(); i++) {
+            EmployeeNamed expectedRow = expected.getAllRows().get(i);
+            EmployeeNamed streamedRow = streamed.getAllRows().get(i);
+            assertEquals(expectedRow.getSheetName(), streamedRow.getSheetName());
+            assertEquals(expectedRow.getSheetIndex(), streamedRow.getSheetIndex());
+            assertEquals(expectedRow.getRowNumber(), streamedRow.getRowNumber());
+            assertEquals(expectedRow.getImportIndex(), streamedRow.getImportIndex());
+            assertEquals(expectedRow.getFirstName(), streamedRow.getFirstName());
+            assertEquals(expectedRow.getLastName(), streamedRow.getLastName());
+            assertEquals(expectedRow.getGender(), streamedRow.getGender());
+            assertEquals(expectedRow.getAge(), streamedRow.getAge());
+            assertEquals(expectedRow.getPhone(), streamedRow.getPhone());
+            assertEquals(expectedRow.getSalary(), streamedRow.getSalary());
+            assertEquals(expectedRow.getIsMarried(), streamedRow.getIsMarried());
+            assertEquals(expectedRow.getBonuses(), streamedRow.getBonuses());
+            assertEquals(expectedRow.getUnmatchedColumns(), streamedRow.getUnmatchedColumns());
+            assertEquals(expectedRow.getLastLogin(), streamedRow.getLastLogin());
+            assertEquals(expectedRow.getHiredOn(), streamedRow.getHiredOn());
+            assertEquals(expectedRow.getStartsWorkAt(), streamedRow.getStartsWorkAt());
+            assertEquals(expectedRow.getPasswordExpires(), streamedRow.getPasswordExpires());
+        }
+    }
+
+    @Test
+    public void ordinalStreamingTest() throws FileNotFoundException {
+        ImportData<EmployeeOrdinal> expected = Importer.build(EmployeeOrdinalImportMapper.class).process(getInputStream("Employees.xlsx"));
+        ImportData<EmployeeOrdinal> streamed = Importer.builder(EmployeeOrdinalImportMapper.class)
+                .withStreaming()
+                .build()
+                .process(getInputStream("Employees.xlsx"));
+
+        assertEquals(expected.getRowNoTotal(), streamed.getRowNoTotal());
+        assertEquals(expected.getRowNoValid(), streamed.getRowNoValid());
+        assertEquals(getProblemClasses(expected), getProblemClasses(streamed));
+
+        for (int i = 0; i < expected.getAllRows().size(); i++) {
+            EmployeeOrdinal expectedRow = expected.getAllRows().get(i);
+            EmployeeOrdinal streamedRow = streamed.getAllRows().get(i);
+            assertEquals(expectedRow.getFirstName(), streamedRow.getFirstName());
+            assertEquals(expectedRow.getLastName(), streamedRow.getLastName());
+            assertEquals(expectedRow.getAge(), streamedRow.getAge());
+            assertEquals(expectedRow.getSalary(), streamedRow.getSalary());
+            assertEquals(expectedRow.getHiredOn(), streamedRow.getHiredOn());
+        }
+    }
+
+    @Test
+    public void xlsStreamingTest() throws FileNotFoundException {
+        ImportData<Financial> expected = Importer.build(FinancialImportMapper.class).process(getInputStream("Financial_sample.xls"));
+        ImportData<Financial> streamed = Importer.builder(FinancialImportMapper.class)
+                .withStreaming()
+                .build()
+                .process(getInputStream("Financial_sample.xls"));
+
+        assertEquals(700, streamed.getRowNoTotal());
+        assertEquals(expected.getRowNoValid(), streamed.getRowNoValid());
+        assertEquals(getProblemClasses(expected), getProblemClasses(streamed));
+
+        for (int i = 0; i < expected.getAllRows().size(); i++) {
+            Financial expectedRow = expected.getAllRows().get(i);
+            Financial streamedRow = streamed.getAllRows().get(i);
+            assertEquals(expectedRow.getSegment(), streamedRow.getSegment());
+            assertEquals(expectedRow.getCountry(), streamedRow.getCountry());
+            assertEquals(expectedRow.getProduct(), streamedRow.getProduct());
+            assertEquals(expectedRow.getDiscountBand(), streamedRow.getDiscountBand());
+            assertEquals(expectedRow.getUnitsSold(), streamedRow.getUnitsSold());
+            assertEquals(expectedRow.getSalePrice(), streamedRow.getSalePrice());
+            assertEquals(expectedRow.getProfit(), streamedRow.getProfit());
+            assertEquals(expectedRow.getLocalDate(), streamedRow.getLocalDate());
+            assertEquals(expectedRow.getMonthName(), streamedRow.getMonthName());
+            assertEquals(expectedRow.getYear(), streamedRow.getYear());
+        }
+    }
+
+    @Test
+    public void notStreamableFallbackTest() throws FileNotFoundException {
+        //files that are not spreadsheets still end up as a file problem
+        ImportData<Financial> streamed = Importer.builder(FinancialImportMapper.class)
+                .withStreaming()
+                .build()
+                .process(getInputStream("sample.pdf"));
+
+        assertEquals(0, streamed.getRowNoTotal());
+        assertEquals(1, streamed.getValidationProblems(FileProblem.class).size());
+    }
+
+    @Test
+    public void cachedFormulaResultsTest() throws FileNotFoundException {
+        ImportData<EmployeeNamed> expected = Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx"));
+        ImportData<EmployeeNamed> cached = Importer.builder(EmployeeNamedImportMapper.class)
+                .withCachedFormulaResults()
+                .build()
+                .process(getInputStream("Employees.xlsx"));
+
+        assertEquals(expected.getRowNoValid(), cached.getRowNoValid());
+        assertEquals(getProblemClasses(expected), getProblemClasses(cached));
+
+        for (int i = 0; i < expected.getAllRows().size(); i++) {
+            EmployeeNamed expectedRow = expected.getAllRows().get(i);
+            EmployeeNamed cachedRow = cached.getAllRows().get(i);
+            assertEquals(expectedRow.getAge(), cachedRow.getAge());
+            assertEquals(expectedRow.getSalary(), cachedRow.getSalary());
+            assertEquals(expectedRow.getBonuses(), cachedRow.getBonuses());
+            assertEquals(expectedRow.getUnmatchedColumns(), cachedRow.getUnmatchedColumns());
+            assertEquals(expectedRow.getHiredOn(), cachedRow.getHiredOn());
+        }
+    }
+
+    @Test
+    public void notRetainedRowsTest() throws FileNotFoundException {
+        ImportData<EmployeeNamed> expected = Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx"));
+        AtomicLong consumedValid = new AtomicLong();
+        AtomicLong consumedInvalid = new AtomicLong();
+        ImportData<EmployeeNamed> streamed = Importer.builder(EmployeeNamedImportMapper.class)
+                .withStreaming()
+                .withRetainedRows(false)
+                .withConsumerForValid(employee -> consumedValid.incrementAndGet())
+                .withConsumerForInvalid(employee -> consumedInvalid.incrementAndGet())
+                .build()
+                .process(getInputStream("Employees.xlsx"));
+
+        assertEquals(expected.getRowNoTotal(), streamed.getRowNoTotal());
+        assertEquals(expected.getRowNoValid(), streamed.getRowNoValid());
+        assertEquals(expected.getRowNoInvalid(), streamed.getRowNoInvalid());
+        assertEquals(expected.getRowNoValid(), consumedValid.get());
+        assertEquals(expected.getRowNoInvalid(), consumedInvalid.get());
+        assertEquals(expected.isValid(), streamed.isValid());
+        assertEquals(expected.getProblemCounts(), streamed.getProblemCounts());
+        assertTrue(streamed.getAllRows().isEmpty());
+        //only the problems of the file are kept, the count agrees with them
+        assertTrue(expected.getValidationProblemsNo() > 0);
+        assertEquals(streamed.getValidationProblems().size(), streamed.getValidationProblemsNo());
+    }
+
+    @Test
+    public void lazyStreamTest() throws FileNotFoundException {
+        ImportData<EmployeeNamed> expected = Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx"));
+        Importer<EmployeeNamed> importer = Importer.builder(EmployeeNamedImportMapper.class)
+                .withStreaming()
+                .build();
+
+        List<RowResult<EmployeeNamed>> results;
+        try (Stream<RowResult<EmployeeNamed>> stream = importer.stream(getInputStream("Employees.xlsx"))) {
+            results = stream.collect(Collectors.toList());
+        }
+        assertEquals(expected.getRowNoTotal(), results.size());
+        assertEquals(expected.getRowNoValid(), results.stream().filter(RowResult::isValid).count());
+        for (int i = 0; i < results.size(); i++) {
+            EmployeeNamed expectedRow = expected.getAllRows().get(i);
+            assertEquals(expectedRow.getImportIndex().longValue(), results.get(i).getImportIndex());
+            assertEquals(expectedRow.getFirstName(), results.get(i).getRow().getFirstName());
+            assertEquals(expected.getValidationProblems(expectedRow).toString(), results.get(i).getProblems().toString());
+        }
+    }
+
+    @Test
+    public void shortCircuitStreamTest() throws FileNotFoundException {
+        AtomicLong consumed = new AtomicLong();
+        Importer<EmployeeNamed> importer = Importer.builder(EmployeeNamedImportMapper.class)
+                .withConsumer(employee -> consumed.incrementAndGet())
+                .build();
+
+        //only the rows taken by the stream are mapped
+        try (Stream<RowResult<EmployeeNamed>> stream = importer.stream(getInputStream("Employees.xlsx"))) {
+            assertEquals(3, stream.limit(3).count());
+        }
+        assertEquals(3, consumed.get());
+
+        consumed.set(0);
+        try (Stream<RowResult<EmployeeNamed>> stream = importer.stream(getInputStream("Employees.xlsx"))) {
+            assertTrue(stream.anyMatch(RowResult::isInvalid));
+        }
+        assertTrue(consumed.get() < Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx")).getRowNoTotal());
+    }
+
+    @Test
+    public void streamSheetProblemTest() throws FileNotFoundException {
+        List<RowResult<EmployeeNamed>> results;
+        try (Stream<RowResult<EmployeeNamed>> stream = Importer.build(EmployeeNamedImportMapper.class).stream(getInputStream("Employees_required_column_missing.xlsx"))) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(1, results.size());
+        assertNull(results.get(0).getRowNo());
+        assertNull(results.get(0).getRow());
+        assertEquals(8, results.get(0).getProblems().size());
+        assertTrue(results.get(0).getProblems().stream().allMatch(problem -> problem instanceof ColumnNotPresentProblem));
+    }
+
+    private static class RecordingSubscriber<T> implements Subscriber<T> {
+        private final List<T> items = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile Subscription subscription;
+        private volatile Throwable error;
+        private volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+            finished.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+            finished.countDown();
+        }
+    }
+
+    @Test
+    public void publisherDemandTest() throws FileNotFoundException {
+        AtomicLong consumed = new AtomicLong();
+        Importer<EmployeeNamed> importer = Importer.builder(EmployeeNamedImportMapper.class)
+                .withStreaming()
+                .withConsumer(employee -> consumed.incrementAndGet())
+                .build();
+        Publisher<RowResult<EmployeeNamed>> publisher = importer.publish(getInputStream("Employees.xlsx"), Runnable::run);
+
+        RecordingSubscriber<RowResult<EmployeeNamed>> subscriber = new RecordingSubscriber<>();
+        publisher.subscribe(subscriber);
+        //nothing is read before the subscriber asks for rows
+        assertEquals(0, consumed.get());
+
+        subscriber.subscription.request(2);
+        assertEquals(2, subscriber.items.size());
+        //the row after the requested ones is read ahead to know whether the import is done
+        assertEquals(3, consumed.get());
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.completed);
+        assertEquals(importer.process(getInputStream("Employees.xlsx")).getRowNoTotal(), subscriber.items.size());
+
+        //the file can only be read once
+        RecordingSubscriber<RowResult<EmployeeNamed>> secondSubscriber = new RecordingSubscriber<>();
+        publisher.subscribe(secondSubscriber);
+        assertTrue(secondSubscriber.error instanceof IllegalStateException);
+    }
+
+    @Test
+    public void publisherExactDemandTest() throws FileNotFoundException {
+        Importer<EmployeeNamed> importer = Importer.builder(EmployeeNamedImportMapper.class)
+                .withStreaming()
+                .build();
+        List<RowResult<EmployeeNamed>> expected = importer.stream(getInputStream("Employees.xlsx")).collect(Collectors.toList());
+
+        RecordingSubscriber<RowResult<EmployeeNamed>> subscriber = new RecordingSubscriber<>();
+        importer.publish(getInputStream("Employees.xlsx"), Runnable::run).subscribe(subscriber);
+        //the subscriber asks for exactly the results left and completes without asking for more
+        subscriber.subscription.request(expected.size() - 1);
+        assertFalse(subscriber.completed);
+        subscriber.subscription.request(1);
+        assertEquals(expected.size(), subscriber.items.size());
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void publisherCancelTest() throws FileNotFoundException, InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            RecordingSubscriber<RowResult<EmployeeNamed>> subscriber = new RecordingSubscriber<>();
+            Importer.build(EmployeeNamedImportMapper.class).publish(getInputStream("Employees.xlsx"), executor).subscribe(subscriber);
+            subscriber.subscription.request(1);
+            subscriber.subscription.cancel();
+            subscriber.subscription.request(5);
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+            assertTrue(subscriber.items.size() <= 1);
+            assertFalse(subscriber.completed);
+            assertNull(subscriber.error);
+
+            RecordingSubscriber<RowResult<EmployeeNamed>> invalidSubscriber = new RecordingSubscriber<>();
+            Importer.build(EmployeeNamedImportMapper.class).publish(getInputStream("Employees.xlsx"), Runnable::run).subscribe(invalidSubscriber);
+            invalidSubscriber.subscription.request(0);
+            assertTrue(invalidSubscriber.finished.await(10, TimeUnit.SECONDS));
+            assertTrue(invalidSubscriber.error instanceof IllegalArgumentException);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private File getFile(String fileName) {
+        return new File(this.getClass().getClassLoader().getResource(fileName).getFile());
+    }
+
+    @Test
+    public void fileTest() throws IOException {
+        ImportData<EmployeeNamed> expected = Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx"));
+        Importer<EmployeeNamed> importer = Importer.build(EmployeeNamedImportMapper.class);
+        Importer<EmployeeNamed> streamingImporter = Importer.builder(EmployeeNamedImportMapper.class).withStreaming().build();
+
+        List<ImportData<EmployeeNamed>> imports = new ArrayList<>();
+        imports.add(importer.process(getFile("Employees.xlsx")));
+        imports.add(streamingImporter.process(getFile("Employees.xlsx")));
+        imports.add(importer.process(getFile("Employees.xlsx").toPath()));
+        try (SeekableByteChannel channel = Files.newByteChannel(getFile("Employees.xlsx").toPath())) {
+            imports.add(streamingImporter.process(channel));
+        }
+        for (ImportData<EmployeeNamed> imported : imports) {
+            assertEquals(expected.getRowNoTotal(), imported.getRowNoTotal());
+            assertEquals(expected.getRowNoValid(), imported.getRowNoValid());
+            assertEquals(getProblemClasses(expected), getProblemClasses(imported));
+        }
+        try (Stream<RowResult<EmployeeNamed>> stream = streamingImporter.stream(getFile("Employees.xlsx").toPath())) {
+            assertEquals(expected.getRowNoTotal(), stream.count());
+        }
+        try (SeekableByteChannel channel = Files.newByteChannel(getFile("Employees.xlsx").toPath());
+             Stream<RowResult<EmployeeNamed>> stream = streamingImporter.stream(channel)) {
+            assertEquals(expected.getRowNoTotal(), stream.count());
+        }
+        RecordingSubscriber<RowResult<EmployeeNamed>> subscriber = new RecordingSubscriber<>();
+        streamingImporter.publish(getFile("Employees.xlsx").toPath(), Runnable::run).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.completed);
+        assertEquals(expected.getRowNoTotal(), subscriber.items.size());
+
+        //the file is left as it was
+        assertEquals(expected.getRowNoTotal(), importer.process(getFile("Employees.xlsx")).getRowNoTotal());
+        assertTrue(importer.process(getFile("sample.pdf")).getValidationProblems().get(0) instanceof FileProblem);
+        assertTrue(importer.process(new File("missing.xlsx")).getValidationProblems().get(0) instanceof FileProblem);
+    }
+
+    @Test
+    public void xlsFileTest() throws IOException {
+        ImportData<Financial> expected = Importer.build(FinancialImportMapper.class).process(getInputStream("Financial_sample.xls"));
+        Importer<Financial> importer = Importer.build(FinancialImportMapper.class);
+        Importer<Financial> streamingImporter = Importer.builder(FinancialImportMapper.class).withStreaming().build();
+
+        List<ImportData<Financial>> imports = new ArrayList<>();
+        imports.add(importer.process(getFile("Financial_sample.xls")));
+        imports.add(streamingImporter.process(getFile("Financial_sample.xls").toPath()));
+        try (FileChannel channel = FileChannel.open(getFile("Financial_sample.xls").toPath(), StandardOpenOption.READ)) {
+            imports.add(streamingImporter.process(channel));
+        }
+        for (ImportData<Financial> imported : imports) {
+            assertEquals(expected.getRowNoTotal(), imported.getRowNoTotal());
+            assertEquals(expected.getRowNoValid(), imported.getRowNoValid());
+            assertEquals(getProblemClasses(expected), getProblemClasses(imported));
+        }
+
+        //a channel that was moved on is read from where it is instead of from the start of the file
+        try (FileChannel channel = FileChannel.open(getFile("Financial_sample.xls").toPath(), StandardOpenOption.READ)) {
+            channel.position(512);
+            assertTrue(streamingImporter.process(channel).getValidationProblems().get(0) instanceof FileProblem);
+        }
+    }
+
+    @Test
+    public void spoolingTest(@TempDir Path spoolDirectory) throws IOException {
+        ImportData<EmployeeNamed> expected = Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx"));
+        Importer<EmployeeNamed> spooling = Importer.builder(EmployeeNamedImportMapper.class)
+                .withStreaming()
+                .withSpooling(0, spoolDirectory)
+                .build();
+        Importer<EmployeeNamed> inMemory = Importer.builder(EmployeeNamedImportMapper.class)
+                .withSpooling(Long.MAX_VALUE, spoolDirectory)
+                .build();
+
+        for (Importer<EmployeeNamed> importer : Arrays.asList(spooling, inMemory)) {
+            ImportData<EmployeeNamed> imported = importer.process(getInputStream("Employees.xlsx"));
+            assertEquals(expected.getRowNoTotal(), imported.getRowNoTotal());
+            assertEquals(getProblemClasses(expected), getProblemClasses(imported));
+        }
+        ImportData<Financial> financial = Importer.builder(FinancialImportMapper.class)
+                .withStreaming()
+                .withSpooling(1024, spoolDirectory)
+                .build()
+                .process(getInputStream("Financial_sample.xls"));
+        assertEquals(700, financial.getRowNoTotal());
+
+        //the spooled file lives as long as the stream
+        try (Stream<RowResult<EmployeeNamed>> stream = spooling.stream(getInputStream("Employees.xlsx"))) {
+            assertEquals(1, Files.list(spoolDirectory).count());
+            assertEquals(expected.getRowNoTotal(), stream.count());
+        }
+        assertTrue(spooling.process(getInputStream("sample.pdf")).getValidationProblems().get(0) instanceof FileProblem);
+        assertEquals(0, Files.list(spoolDirectory).count());
+
+        assertThrows(IllegalArgumentException.class, () -> Importer.builder(EmployeeNamedImportMapper.class).withSpooling(-1));
+    }
+
+    private void assertProjected(SpreadsheetReader projected, SpreadsheetReader full) {
+        BitSet columns = new BitSet();
+        columns.set(0);
+        columns.set(3);
+        Iterator<SpreadsheetRow> projectedRows = projected.rowIterator(0);
+        Iterator<SpreadsheetRow> fullRows = full.rowIterator(0);
+        //the header is read before the projection
+        assertEquals(fullRows.next().getLastCellNum(), projectedRows.next().getLastCellNum());
+        ((ProjectableRowIterator) projectedRows).projectColumns(columns);
+
+        while (fullRows.hasNext()) {
+            SpreadsheetRow fullRow = fullRows.next();
+            SpreadsheetRow projectedRow = projectedRows.next();
+            assertEquals(fullRow.getRowNum(), projectedRow.getRowNum());
+            assertEquals(Importer.isRowEmpty(fullRow), Importer.isRowEmpty(projectedRow));
+            for (int i = 0; i < fullRow.getLastCellNum(); i++) {
+                CellType cellType = fullRow.getCellType(i);
+                if (columns.get(i)) {
+                    assertEquals(cellType, projectedRow.getCellType(i));
+                    assertEquals(fullRow.getFormattedCellValue(i), projectedRow.getFormattedCellValue(i));
+                } else if (cellType != null && cellType != CellType.BLANK) {
+                    assertEquals(CellType._NONE, projectedRow.getCellType(i));
+                }
+            }
+        }
+        assertFalse(projectedRows.hasNext());
+    }
+
+    @Test
+    public void columnProjectionTest() throws IOException {
+        try (SpreadsheetReader projected = XlsxStreamingReader.open(getInputStream("Employees.xlsx"));
+             SpreadsheetReader full = XlsxStreamingReader.open(getInputStream("Employees.xlsx"))) {
+            assertProjected(projected, full);
+        }
+        try (SpreadsheetReader projected = XlsStreamingReader.open(getInputStream("Financial_sample.xls"));
+             SpreadsheetReader full = XlsStreamingReader.open(getInputStream("Financial_sample.xls"))) {
+            assertProjected(projected, full);
+        }
+
+        //the unmatched columns are still read for the mappers injecting them
+        ImportData<EmployeeNamed> expected = Importer.build(EmployeeNamedImportMapper.class).process(getInputStream("Employees.xlsx"));
+        ImportData<EmployeeNamed> streamed = Importer.builder(EmployeeNamedImportMapper.class)
+                .withStreaming()
+                .build()
+                .process(getInputStream("Employees.xlsx"));
+        assertFalse(streamed.getAllRows().get(0).getUnmatchedColumns().isEmpty());
+        for (int i = 0; i < expected.getAllRows().size(); i++) {
+            assertEquals(expected.getAllRows().get(i).getUnmatchedColumns(), streamed.getAllRows().get(i).getUnmatchedColumns());
+        }
+    }
+
+    //POI does not write shared formulas so the formulas of the first column are turned into one after the workbook is saved
+    private byte[] getSharedFormulaWorkbook(String formula, int rowNo) throws IOException {
+        ByteArrayOutputStream saved = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Shared");
+            workbook.createSheet("Other sheet");
+            for (int i = 0; i < rowNo; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellFormula(formula);
+                row.createCell(1).setCellValue(i);
+                row.createCell(2).setCellValue(i * 2);
+            }
+            workbook.write(saved);
+        }
+        ByteArrayOutputStream shared = new ByteArrayOutputStream();
+        try (ZipInputStream zipInput = new ZipInputStream(new ByteArrayInputStream(saved.toByteArray()));
+             ZipOutputStream zipOutput = new ZipOutputStream(shared)) {
+            for (ZipEntry entry = zipInput.getNextEntry(); entry != null; entry = zipInput.getNextEntry()) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                for (int read = zipInput.read(buffer); read >= 0; read = zipInput.read(buffer)) {
+                    content.write(buffer, 0, read);
+                }
+                byte[] data = content.toByteArray();
+                String xml = new String(data, StandardCharsets.UTF_8);
+                int first = xml.indexOf("<f>");
+                if (entry.getName().startsWith("xl/worksheets/") && first >= 0) {
+                    String master = xml.substring(0, first) + "<f t=\"shared\" ref=\"A1:A" + rowNo + "\" si=\"0\">";
+                    String rest = xml.substring(first + 3).replaceAll("<f>[^<]*</f>", "<f t=\"shared\" si=\"0\"/>");
+                    data = (master + rest).getBytes(StandardCharsets.UTF_8);
+                }
+                zipOutput.putNextEntry(new ZipEntry(entry.getName()));
+                zipOutput.write(data);
+                zipOutput.closeEntry();
+            }
+        }
+        return shared.toByteArray();
+    }
+
+    @Test
+    public void sharedFormulaTest() throws IOException {
+        String formula = "B1*2+$B$1+SUM(B1:C2)+B$1+$C1+LOG10(B1+1)";
+        byte[] workbook = getSharedFormulaWorkbook(formula, 4);
+        try (XSSFWorkbook expected = new XSSFWorkbook(new ByteArrayInputStream(workbook));
+             SpreadsheetReader streamed = XlsxStreamingReader.open(new ByteArrayInputStream(workbook))) {
+            Iterator<SpreadsheetRow> rows = streamed.rowIterator(0);
+            for (int i = 0; i < 4; i++) {
+                SpreadsheetRow row = rows.next();
+                assertEquals(expected.getSheetAt(0).getRow(i).getCell(0).getCellFormula(), row.getCellFormula(0));
+            }
+            assertFalse(rows.hasNext());
+        }
+        //the references to other sheets are moved too but not the text of the strings
+        try (SpreadsheetReader streamed = XlsxStreamingReader.open(new ByteArrayInputStream(getSharedFormulaWorkbook("'Other sheet'!B1:C1&\"B1\"", 2)))) {
+            Iterator<SpreadsheetRow> rows = streamed.rowIterator(0);
+            assertEquals("'Other sheet'!B1:C1&\"B1\"", rows.next().getCellFormula(0));
+            assertEquals("'Other sheet'!B2:C2&\"B1\"", rows.next().getCellFormula(0));
+        }
+        //the cells of a shared formula that end up outside the sheet get the same error as in Excel
+        try (SpreadsheetReader streamed = XlsxStreamingReader.open(new ByteArrayInputStream(getSharedFormulaWorkbook("B1048575", 3)))) {
+            Iterator<SpreadsheetRow> rows = streamed.rowIterator(0);
+            assertEquals("B1048575", rows.next().getCellFormula(0));
+            assertEquals("B1048576", rows.next().getCellFormula(0));
+            assertEquals("#REF!", rows.next().getCellFormula(0));
+        }
+    }
+
+    @Test
+    public void unknownErrorTest() {
+        //an error text POI does not know is read as #N/A instead of failing the file
+        StreamedRow row = new StreamedRow(DataFormatter::new, false);
+        row.reset(0);
+        row.setError(0, "#UNKNOWN!");
+        assertEquals(CellType.ERROR, row.getCellType(0));
+        assertEquals(FormulaError.NA.getCode(), row.evaluateFormula(0).getErrorValue());
+    }
+
+    @Test
+    public void streamFailureTest(@TempDir Path spoolDirectory) throws IOException {
+        Importer<EmployeeNamed> importer = Importer.builder(EmployeeNamedImportMapper.class)
+                .withStreaming()
+                .withSpooling(0, spoolDirectory)
+                .withConsumer(employee -> {
+                    throw new IllegalStateException("Consumer failure");
+                })
+                .build();
+
+        //the spooled file is deleted with the reader, which is closed by the failure even though the stream is not
+        Stream<RowResult<EmployeeNamed>> stream = importer.stream(getInputStream("Employees.xlsx"));
+        assertEquals(1, Files.list(spoolDirectory).count());
+        assertThrows(IllegalStateException.class, stream::count);
+        assertEquals(0, Files.list(spoolDirectory).count());
+    }
+}
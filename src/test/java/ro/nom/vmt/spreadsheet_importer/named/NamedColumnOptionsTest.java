@@ -21,13 +21,16 @@ import ro.nom.vmt.spreadsheet_importer.util.Pair;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class NamedColumnOptionsTest {
 
@@ -133,5 +136,30 @@ public class NamedColumnOptionsTest {
         assertEquals(expectedSumSalary.get(), sumSalary.get());
     }
 
+    @Test
+    public void importBatchConsumerTest() {
+        List<List<EmployeeNamed>> batches = new ArrayList<>();
+        List<List<EmployeeNamed>> validBatches = new ArrayList<>();
+        List<List<Pair<EmployeeNamed, List<RowProblem>>>> invalidBatches = new ArrayList<>();
+
+        ImportData<EmployeeNamed> importData = Importer.builder(EmployeeNamedImportMapper.class)
+                .withBatchConsumer(3, batches::add)
+                .withBatchConsumerForValid(2, validBatches::add)
+                .withBatchConsumerForInvalidWithProblems(100, invalidBatches::add)
+                .build()
+                .process(is);
+
+        //every batch is full except the last one which holds the rows left at the end of the import
+        assertEquals((employees.size() + 2) / 3, batches.size());
+        batches.subList(0, batches.size() - 1).forEach(batch -> assertEquals(3, batch.size()));
+        assertEquals(importData.getAllRows(), batches.stream().flatMap(List::stream).collect(Collectors.toList()));
+        assertEquals(importData.getValidRows(), validBatches.stream().flatMap(List::stream).collect(Collectors.toList()));
 
+        assertEquals(1, invalidBatches.size());
+        assertEquals(importData.getInvalidRows().size(), invalidBatches.get(0).size());
+        invalidBatches.get(0).forEach(pair -> assertEquals(importData.getValidationProblems(pair.p1), pair.p2));
+
+        assertThrows(IllegalArgumentException.class, () -> Importer.builder(EmployeeNamedImportMapper.class).withBatchConsumer(0, batch -> {
+        }));
+    }
 }
@@ -14,15 +14,18 @@ import ro.nom.vmt.demo.dto.EmployeeNamed;
 import ro.nom.vmt.demo.dto.EmployeeNamedImportMapper;
 import ro.nom.vmt.spreadsheet_importer.importing.ImportData;
 import ro.nom.vmt.spreadsheet_importer.importing.Importer;
+import ro.nom.vmt.spreadsheet_importer.interfaces.SpreadsheetRow;
+import ro.nom.vmt.spreadsheet_importer.reading.CsvReader;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.List;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class NamedTest {
 
@@ -197,4 +200,48 @@ public class NamedTest {
         assertEquals(2, importData.getNoOfSheets());
     }
 
+    @Test
+    public void headerMatcherTest() throws IOException {
+        String header = "First Name,Bonus 1,Random,,Bonus 2,First Name,Email\n";
+        SpreadsheetRow headerRow;
+        try (CsvReader reader = new CsvReader(new ByteArrayInputStream(header.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, ',', "CSV")) {
+            headerRow = reader.rowIterator(0).next();
+        }
+        Map<String, LinkedHashMap<String, Integer>> columnPositions = new EmployeeNamedImportMapper().getHeaderMatcher().match(headerRow);
+
+        //an exact name appearing twice keeps its first place and the index of the last appearance
+        assertEquals(Collections.singletonMap("First Name", 5), columnPositions.get("firstName"));
+        assertEquals(Arrays.asList("Bonus 1", "Bonus 2"), new ArrayList<>(columnPositions.get("bonuses").keySet()));
+        assertEquals(Arrays.asList(1, 4), new ArrayList<>(columnPositions.get("bonusesMap1").values()));
+        assertEquals(Collections.singletonMap("Email", 6), columnPositions.get("email"));
+        assertEquals(Collections.singletonMap("Random", 2), columnPositions.get(null));
+        assertTrue(columnPositions.get("lastName").isEmpty());
+        assertEquals(new EmployeeNamedImportMapper().getColumnNames().size() + 1, columnPositions.size());
+    }
+
+    @Test
+    public void headerCacheTest() throws IOException {
+        Importer<EmployeeNamed> importer = Importer.builder(EmployeeNamedImportMapper.class)
+                .withHeaderCache(4)
+                .withMetrics()
+                .build();
+
+        for (int run = 0; run < 3; run++) {
+            InputStream is = new FileInputStream(this.getClass().getClassLoader().getResource("Employees.xlsx").getFile());
+            ImportData<EmployeeNamed> cachedData = importer.process(is);
+
+            //both sheets of the file are resolved by the first import and found in the cache afterwards
+            assertEquals(run == 0 ? 0 : 2, cachedData.getMetrics().getHeaderCacheHits());
+            assertEquals(importData.getRowNoTotal(), cachedData.getRowNoTotal());
+            assertEquals(importData.getRowNoValid(), cachedData.getRowNoValid());
+            assertEquals(importData.getProblemCounts(), cachedData.getProblemCounts());
+            for (int i = 0; i < importData.getAllRows().size(); i++) {
+                assertEquals(importData.getAllRows().get(i).getFirstName(), cachedData.getAllRows().get(i).getFirstName());
+                assertEquals(importData.getAllRows().get(i).getBonuses(), cachedData.getAllRows().get(i).getBonuses());
+                assertEquals(importData.getAllRows().get(i).getUnmatchedColumns(), cachedData.getAllRows().get(i).getUnmatchedColumns());
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> Importer.builder(EmployeeNamedImportMapper.class).withHeaderCache(0));
+    }
 }
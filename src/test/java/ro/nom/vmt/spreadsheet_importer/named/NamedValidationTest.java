@@ -22,8 +22,11 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class NamedValidationTest {
@@ -51,6 +54,24 @@ public class NamedValidationTest {
         }
     }
 
+    @Test
+    public void importProblemsLookupTest() {
+        List<EmployeeNamed> employeesImported = importData.getAllRows();
+
+        for (EmployeeNamed employee : employeesImported) {
+            List<RowProblem> problems = importData.getValidationProblems(employee);
+            assertSame(problems, importData.getValidationProblems(employee.getSheetName(), employee.getRowNumber()));
+            assertSame(problems, importData.getValidationProblemsByImportIndex(employee.getImportIndex()));
+            assertSame(employee, importData.getRow(employee.getSheetName(), employee.getRowNumber()));
+            assertSame(employee, importData.getRowByImportIndex(employee.getImportIndex()));
+        }
+        assertThrows(NoSuchElementException.class, () -> importData.getRowByImportIndex(employeesImported.size() + 1));
+        assertThrows(NoSuchElementException.class, () -> importData.getRow("Missing sheet", 1));
+        //only the imported instances are found
+        assertThrows(NoSuchElementException.class, () -> importData.getRowContext(new EmployeeNamed()));
+        assertThrows(NoSuchElementException.class, () -> importData.getValidationProblems(new EmployeeNamed()));
+    }
+
     @Test
     public void importColumnValueRequiredButNullTest() {
 